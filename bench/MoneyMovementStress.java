@@ -0,0 +1,449 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.webapp.bankingportal.BankingportalApplication;
+import com.webapp.bankingportal.entity.Account;
+import com.webapp.bankingportal.entity.User;
+import com.webapp.bankingportal.exception.InsufficientBalanceException;
+import com.webapp.bankingportal.repository.UserRepository;
+import com.webapp.bankingportal.service.AccountService;
+import com.webapp.bankingportal.service.IdempotencyService;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Runs randomized deposits, withdrawals and transfers concurrently against
+ * {@link AccountService} on an embedded H2 database in MySQL mode, then checks
+ * the invariants every money movement must keep:
+ *
+ * - money is conserved: the total balance changed by exactly the successful
+ *   deposits minus the successful withdrawals;
+ * - no balance is negative;
+ * - there is one transaction row per successful operation, with its amount;
+ * - every account's balance equals its opening balance plus its postings;
+ * - a retry with the Idempotency-Key of a successful operation is replayed
+ *   instead of moving the money again.
+ *
+ * A share of the operations go through {@link IdempotencyService} with a key,
+ * as requests carrying an Idempotency-Key header do, and are retried once.
+ *
+ * Throughput, latency and contention (rejections, failures by exception and
+ * connection pool waits) are reported alongside. Exits with status 1 when an
+ * invariant is violated.
+ *
+ * H2 row locking is close to, but not the same as, InnoDB's; a clean run here
+ * does not replace a run against MySQL. H2 reports lock wait timeouts as
+ * SQLTimeoutException, on which Hikari evicts the connection, so they show up
+ * as "Connection is closed" from the rollback that follows.
+ *
+ * Run through bench/money-movement-stress.sh.
+ */
+public class MoneyMovementStress {
+
+    private static final String PIN = "1234";
+    private static final double OPENING_BALANCE = 10_000;
+    private static final double EPSILON = 0.005;
+
+    enum Operation {
+        DEPOSIT("CASH_DEPOSIT"), WITHDRAWAL("CASH_WITHDRAWAL"), TRANSFER("CASH_TRANSFER");
+
+        final String transactionType;
+
+        Operation(String transactionType) {
+            this.transactionType = transactionType;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        var threads = Integer.getInteger("threads", 16);
+        var accounts = Integer.getInteger("accounts", 100);
+        var operations = Integer.getInteger("operations", 5_000);
+        var seed = Long.getLong("seed", 42);
+        var bcryptStrength = Integer.getInteger("bcryptStrength", 10);
+        var keyedPercent = Integer.getInteger("keyedPercent", 25);
+
+        var context = start(threads, bcryptStrength);
+        var violations = 0;
+        try {
+            var accountNumbers = openAccounts(context, accounts);
+            var pool = context.getBean(DataSource.class).unwrap(HikariDataSource.class).getHikariPoolMXBean();
+
+            System.out.printf("%d operations (%d%% keyed) on %d accounts from %d threads, seed %d, "
+                    + "bcrypt strength %d%n%n", operations, keyedPercent, accounts, threads, seed, bcryptStrength);
+
+            var service = context.getBean(AccountService.class);
+            var idempotencyService = context.getBean(IdempotencyService.class);
+            var remaining = new AtomicInteger(operations);
+            var startGate = new CountDownLatch(1);
+            var workers = new ArrayList<Worker>();
+            var executor = Executors.newFixedThreadPool(threads);
+            for (var i = 0; i < threads; i++) {
+                var worker = new Worker(service, idempotencyService, keyedPercent, accountNumbers,
+                        new Random(seed + i), remaining, startGate);
+                workers.add(worker);
+                executor.submit(worker);
+            }
+
+            // Sample the pool while the workers run to see how often they queue for a connection
+            var waits = new long[2];
+            var sampler = Executors.newSingleThreadScheduledExecutor();
+            sampler.scheduleAtFixedRate(() -> {
+                var waiting = pool.getThreadsAwaitingConnection();
+                waits[0] = Math.max(waits[0], waiting);
+                waits[1] += waiting > 0 ? 1 : 0;
+            }, 0, 10, TimeUnit.MILLISECONDS);
+
+            var started = System.nanoTime();
+            startGate.countDown();
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.HOURS);
+            var elapsedNanos = System.nanoTime() - started;
+            sampler.shutdown();
+            sampler.awaitTermination(1, TimeUnit.SECONDS);
+
+            var stats = Stats.merge(workers);
+            report(stats, elapsedNanos, waits, elapsedNanos / TimeUnit.MILLISECONDS.toNanos(10));
+            violations = check(context.getBean(JdbcTemplate.class), stats, accounts);
+        } finally {
+            context.close();
+        }
+
+        System.exit(violations > 0 ? 1 : 0);
+    }
+
+    private static ConfigurableApplicationContext start(int threads, int bcryptStrength) {
+        return new SpringApplicationBuilder(BankingportalApplication.class)
+                .properties(
+                        "spring.main.allow-circular-references=true",
+                        "spring.main.banner-mode=off",
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        // Failed operations are tallied in the report instead
+                        "logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=OFF",
+                        "logging.level.org.springframework.transaction.interceptor=OFF",
+                        "logging.level.com.zaxxer.hikari.pool.ProxyConnection=ERROR",
+                        "jwt.secret=money-movement-stress",
+                        "jwt.expiration=900000",
+                        "geo.api.url=http://localhost/",
+                        "geo.api.key=money-movement-stress",
+                        "spring.mail.host=localhost",
+                        "spring.datasource.url=jdbc:h2:mem:stress;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                                + "NON_KEYWORDS=USER,MONTH,VALUE,KEY;LOCK_TIMEOUT=1000",
+                        "spring.datasource.hikari.maximum-pool-size=" + threads,
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "spring.jpa.open-in-view=false",
+                        // Every operation checks the PIN, so its hashing cost is part of the
+                        // measurement; the strength defaults to the application's
+                        "password-hashing.calibrate=false",
+                        "password-hashing.bcrypt.strength=" + bcryptStrength,
+                        "identifier-filter.enabled=false",
+                        "interest.accrual.enabled=false",
+                        "statement.enabled=false",
+                        "account-summary.rebuild-cron=-")
+                .run();
+    }
+
+    private static List<String> openAccounts(ConfigurableApplicationContext context, int count) {
+        var userRepository = context.getBean(UserRepository.class);
+        var pin = context.getBean(PasswordEncoder.class).encode(PIN);
+        var accountNumbers = new ArrayList<String>(count);
+
+        for (var i = 0; i < count; i++) {
+            var user = new User();
+            user.setName("Stress " + i);
+            user.setPassword("unused");
+            user.setEmail("stress" + i + "@example.com");
+            user.setCountryCode("US");
+            user.setPhoneNumber(String.format("20255%05d", i));
+            user.setAddress("Stress test");
+
+            var account = new Account();
+            account.setAccountNumber(String.format("s%05d", i));
+            account.setBalance(OPENING_BALANCE);
+            account.setPin(pin);
+            account.setUser(user);
+            user.setAccount(account);
+
+            userRepository.save(user);
+            accountNumbers.add(account.getAccountNumber());
+        }
+
+        return accountNumbers;
+    }
+
+    private static void report(Stats stats, long elapsedNanos, long[] waits, long samples) {
+        var seconds = elapsedNanos / 1e9;
+
+        System.out.printf("%-11s %9s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "attempts", "ok", "rejected", "failed", "p50 ms", "p99 ms", "max ms");
+        for (var operation : Operation.values()) {
+            var latencies = stats.latencies(operation);
+            System.out.printf("%-11s %9d %9d %9d %9d %9.2f %9.2f %9.2f%n", operation.name().toLowerCase(),
+                    stats.attempts[operation.ordinal()], stats.succeeded[operation.ordinal()],
+                    stats.rejected[operation.ordinal()], stats.failedCount(operation),
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0));
+        }
+
+        System.out.printf("%nthroughput: %.0f operations/s, %.0f successful/s over %.2f s%n",
+                stats.total(stats.attempts) / seconds, stats.total(stats.succeeded) / seconds, seconds);
+        System.out.printf("pool waits: up to %d threads queued, in %.0f%% of samples%n",
+                waits[0], samples > 0 ? 100.0 * waits[1] / samples : 0);
+        System.out.printf("keyed: %d operations, %d retries replayed, %d executed again%n",
+                stats.keyed, stats.replayed, stats.reexecuted);
+
+        if (!stats.failures.isEmpty()) {
+            System.out.printf("%nfailures:%n");
+            stats.failures.forEach((failure, count) -> System.out.printf("  %6d  %s%n", count, failure));
+        }
+        System.out.println();
+    }
+
+    private static int check(JdbcTemplate jdbc, Stats stats, int accounts) {
+        var violations = 0;
+
+        var deposited = stats.amounts[Operation.DEPOSIT.ordinal()];
+        var withdrawn = stats.amounts[Operation.WITHDRAWAL.ordinal()];
+        var expectedTotal = accounts * OPENING_BALANCE + deposited - withdrawn;
+        var total = jdbc.queryForObject("SELECT COALESCE(SUM(balance), 0) FROM account", Double.class);
+        violations += verdict("money is conserved", Math.abs(total - expectedTotal) < EPSILON,
+                String.format("total balance %.2f, expected %.2f (drift %.2f)", total, expectedTotal,
+                        total - expectedTotal));
+
+        var negative = jdbc.queryForList("SELECT account_number FROM account WHERE balance < 0", String.class);
+        violations += verdict("no negative balance", negative.isEmpty(),
+                negative.size() + " negative: " + negative);
+
+        var rows = new HashMap<String, double[]>();
+        jdbc.query("SELECT transaction_type, COUNT(*), COALESCE(SUM(amount), 0) FROM transaction "
+                + "GROUP BY transaction_type",
+                rs -> {
+                    rows.put(rs.getString(1), new double[] { rs.getLong(2), rs.getDouble(3) });
+                });
+        var mismatches = new ArrayList<String>();
+        for (var operation : Operation.values()) {
+            var row = rows.getOrDefault(operation.transactionType, new double[2]);
+            var succeeded = stats.succeeded[operation.ordinal()];
+            var amount = stats.amounts[operation.ordinal()];
+            if (row[0] != succeeded || Math.abs(row[1] - amount) > EPSILON) {
+                mismatches.add(String.format("%s %d rows / %.2f for %d successes / %.2f",
+                        operation.transactionType, (long) row[0], row[1], succeeded, amount));
+            }
+        }
+        violations += verdict("one transaction row per success", mismatches.isEmpty(), String.join("; ", mismatches));
+
+        var drifting = jdbc.queryForList("SELECT a.account_number FROM account a "
+                + "LEFT JOIN (SELECT account_id, SUM(amount) AS moved FROM posting GROUP BY account_id) p "
+                + "ON p.account_id = a.id WHERE ABS(a.balance - ? - COALESCE(p.moved, 0)) > ?",
+                String.class, OPENING_BALANCE, EPSILON);
+        violations += verdict("balances match postings", drifting.isEmpty(),
+                drifting.size() + " accounts differ from their postings: " + drifting);
+
+        violations += verdict("keyed retries replayed", stats.reexecuted == 0,
+                stats.reexecuted + " retries executed again");
+
+        return violations;
+    }
+
+    private static int verdict(String invariant, boolean holds, String detail) {
+        System.out.printf("%-34s %s%n", invariant, holds ? "OK" : "VIOLATED  " + detail);
+        return holds ? 0 : 1;
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        var index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+
+    private static class Worker implements Runnable {
+
+        private final AccountService service;
+        private final IdempotencyService idempotencyService;
+        private final int keyedPercent;
+        private final List<String> accountNumbers;
+        private final Random random;
+        private final AtomicInteger remaining;
+        private final CountDownLatch startGate;
+        private final Stats stats = new Stats();
+
+        Worker(AccountService service, IdempotencyService idempotencyService, int keyedPercent,
+                List<String> accountNumbers, Random random, AtomicInteger remaining, CountDownLatch startGate) {
+            this.service = service;
+            this.idempotencyService = idempotencyService;
+            this.keyedPercent = keyedPercent;
+            this.accountNumbers = accountNumbers;
+            this.random = random;
+            this.remaining = remaining;
+            this.startGate = startGate;
+        }
+
+        @Override
+        public void run() {
+            try {
+                startGate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            while (remaining.getAndDecrement() > 0) {
+                // Mostly transfers, the operation that takes two rows; withdrawals
+                // and transfers ask for up to a fifth of the opening balance
+                var roll = random.nextInt(100);
+                var operation = roll < 20 ? Operation.DEPOSIT : roll < 45 ? Operation.WITHDRAWAL : Operation.TRANSFER;
+                var amount = 100.0 * (1 + random.nextInt(20));
+                var source = accountNumbers.get(random.nextInt(accountNumbers.size()));
+                var target = source;
+                while (operation == Operation.TRANSFER && target.equals(source)) {
+                    target = accountNumbers.get(random.nextInt(accountNumbers.size()));
+                }
+                var keyed = random.nextInt(100) < keyedPercent;
+
+                var transferTarget = target;
+                Runnable movement = () -> {
+                    switch (operation) {
+                        case DEPOSIT -> service.cashDeposit(source, PIN, amount);
+                        case WITHDRAWAL -> service.cashWithdrawal(source, PIN, amount);
+                        case TRANSFER -> service.fundTransfer(source, transferTarget, PIN, amount);
+                    }
+                };
+
+                var started = System.nanoTime();
+                try {
+                    if (keyed) {
+                        runKeyed(source, operation + ":" + transferTarget + ":" + amount, movement);
+                    } else {
+                        movement.run();
+                    }
+                    stats.succeeded(operation, amount, System.nanoTime() - started);
+                } catch (InsufficientBalanceException e) {
+                    stats.attempts[operation.ordinal()]++;
+                    stats.rejected[operation.ordinal()]++;
+                } catch (RuntimeException e) {
+                    stats.failed(operation, e);
+                }
+            }
+        }
+
+        // Submits the movement with a fresh key, as the controllers do, then retries it with the same key
+        private void runKeyed(String accountNumber, String fingerprint, Runnable movement) {
+            var key = UUID.randomUUID().toString();
+            Supplier<ResponseEntity<String>> action = () -> {
+                movement.run();
+                return ResponseEntity.ok("moved");
+            };
+
+            idempotencyService.execute(accountNumber, key, fingerprint, action);
+            stats.keyed++;
+            var retry = idempotencyService.execute(accountNumber, key, fingerprint, action);
+            if (retry.getHeaders().containsKey("Idempotent-Replayed")) {
+                stats.replayed++;
+            } else {
+                stats.reexecuted++;
+            }
+        }
+    }
+
+    private static class Stats {
+
+        final long[] attempts = new long[Operation.values().length];
+        final long[] succeeded = new long[Operation.values().length];
+        final long[] rejected = new long[Operation.values().length];
+        final double[] amounts = new double[Operation.values().length];
+        long keyed;
+        long replayed;
+        long reexecuted;
+        final Map<String, Long> failures = new TreeMap<>();
+        final List<List<Long>> latencyNanos = new ArrayList<>();
+
+        Stats() {
+            for (var operation : Operation.values()) {
+                latencyNanos.add(new ArrayList<>());
+            }
+        }
+
+        void succeeded(Operation operation, double amount, long nanos) {
+            attempts[operation.ordinal()]++;
+            succeeded[operation.ordinal()]++;
+            amounts[operation.ordinal()] += amount;
+            latencyNanos.get(operation.ordinal()).add(nanos);
+        }
+
+        void failed(Operation operation, RuntimeException e) {
+            attempts[operation.ordinal()]++;
+            failures.merge(operation.name().toLowerCase() + ": " + describe(e), 1L, Long::sum);
+        }
+
+        long failedCount(Operation operation) {
+            return attempts[operation.ordinal()] - succeeded[operation.ordinal()] - rejected[operation.ordinal()];
+        }
+
+        long[] latencies(Operation operation) {
+            var latencies = latencyNanos.get(operation.ordinal()).stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(latencies);
+            return latencies;
+        }
+
+        long total(long[] counts) {
+            return Arrays.stream(counts).sum();
+        }
+
+        static Stats merge(List<Worker> workers) {
+            var merged = new Stats();
+            for (var worker : workers) {
+                var stats = worker.stats;
+                for (var i = 0; i < Operation.values().length; i++) {
+                    merged.attempts[i] += stats.attempts[i];
+                    merged.succeeded[i] += stats.succeeded[i];
+                    merged.rejected[i] += stats.rejected[i];
+                    merged.amounts[i] += stats.amounts[i];
+                    merged.latencyNanos.get(i).addAll(stats.latencyNanos.get(i));
+                }
+                merged.keyed += stats.keyed;
+                merged.replayed += stats.replayed;
+                merged.reexecuted += stats.reexecuted;
+                stats.failures.forEach((failure, count) -> merged.failures.merge(failure, count, Long::sum));
+            }
+            return merged;
+        }
+
+        // Exception type plus the innermost cause, which names the lock or constraint involved;
+        // key values are cut off so failures on the same constraint are counted together
+        private static String describe(Throwable e) {
+            var root = e;
+            while (root.getCause() != null && root.getCause() != root) {
+                root = root.getCause();
+            }
+            if (root == e) {
+                return e.getClass().getSimpleName();
+            }
+            var message = String.valueOf(root.getMessage()).lines().findFirst().orElse("")
+                    .replaceAll("\\s+(\\(|VALUES\\b).*$", "");
+            if (message.length() > 100) {
+                message = message.substring(0, 100) + "...";
+            }
+            return e.getClass().getSimpleName() + " <- " + root.getClass().getSimpleName() + ": " + message;
+        }
+    }
+
+}
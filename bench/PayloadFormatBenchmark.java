@@ -0,0 +1,118 @@
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.webapp.bankingportal.config.JacksonConfig;
+import com.webapp.bankingportal.dto.TransactionDTO;
+import com.webapp.bankingportal.dto.TransactionPageResponse;
+import com.webapp.bankingportal.entity.TransactionType;
+
+/**
+ * Compares payload size and serialization time of JSON and Smile for
+ * transaction history pages, using mappers configured like the application's.
+ * Run through bench/payload-formats.sh.
+ */
+public class PayloadFormatBenchmark {
+
+    private static final String ACCOUNT_NUMBER = "4f9c2a";
+    private static final String[] COUNTERPARTIES = { "a81d3e", "07bc44", "e5f190", "3390ad", "c2e7b8", "9d04f6" };
+    private static final long YEAR_MILLIS = TimeUnit.DAYS.toMillis(365);
+
+    public static void main(String[] args) throws Exception {
+        var warmupMillis = Long.getLong("warmup", 3_000);
+        var measureMillis = Long.getLong("measure", 5_000);
+
+        var json = mapper(Jackson2ObjectMapperBuilder.json());
+        var smile = mapper(Jackson2ObjectMapperBuilder.json().factory(JacksonConfig.smileFactory()));
+
+        System.out.printf("%-22s %10s %10s %7s %12s %12s %7s%n",
+                "payload", "json B", "smile B", "size", "json us", "smile us", "time");
+
+        for (var size : new int[] { 20, 100, 1_000 }) {
+            Object page = new TransactionPageResponse(history(size), 1_000_000L);
+            report("page of " + size, page, json, smile, warmupMillis, measureMillis);
+        }
+
+        report("history of 5000", history(5_000), json, smile, warmupMillis, measureMillis);
+    }
+
+    private static ObjectMapper mapper(Jackson2ObjectMapperBuilder builder) {
+        new JacksonConfig().jacksonCustomizer().customize(builder);
+        return builder.modulesToInstall(new BlackbirdModule()).build();
+    }
+
+    private static void report(String label, Object payload, ObjectMapper json, ObjectMapper smile,
+            long warmupMillis, long measureMillis) throws Exception {
+        var jsonBytes = json.writeValueAsBytes(payload).length;
+        var smileBytes = smile.writeValueAsBytes(payload).length;
+
+        time(json, payload, warmupMillis);
+        time(smile, payload, warmupMillis);
+        var jsonMicros = time(json, payload, measureMillis);
+        var smileMicros = time(smile, payload, measureMillis);
+
+        System.out.printf("%-22s %10d %10d %6.0f%% %12.1f %12.1f %6.0f%%%n", label, jsonBytes, smileBytes,
+                100.0 * smileBytes / jsonBytes, jsonMicros, smileMicros, 100.0 * smileMicros / jsonMicros);
+    }
+
+    // Average microseconds per serialization over the given wall-clock budget
+    private static double time(ObjectMapper mapper, Object payload, long budgetMillis) throws Exception {
+        var writer = mapper.writer();
+        var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        var start = System.nanoTime();
+        long iterations = 0;
+        long sink = 0;
+
+        while (System.nanoTime() < deadline) {
+            sink += writer.writeValueAsBytes(payload).length;
+            iterations++;
+        }
+
+        if (sink == 0) {
+            throw new IllegalStateException();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / iterations;
+    }
+
+    // Deposits, withdrawals, transfers to a handful of regular counterparties and monthly interest
+    private static List<TransactionDTO> history(int size) {
+        var random = new Random(42);
+        var now = System.currentTimeMillis();
+        var transactions = new ArrayList<TransactionDTO>(size);
+
+        for (var i = 0; i < size; i++) {
+            var date = new Date(now - YEAR_MILLIS * i / size);
+            var counterparty = COUNTERPARTIES[random.nextInt(COUNTERPARTIES.length)];
+            var roll = random.nextInt(100);
+
+            TransactionDTO transaction;
+            if (roll < 30) {
+                transaction = new TransactionDTO(null, 100.0 * (1 + random.nextInt(200)), TransactionType.CASH_DEPOSIT,
+                        date, ACCOUNT_NUMBER, "N/A");
+            } else if (roll < 55) {
+                transaction = new TransactionDTO(null, 100.0 * (1 + random.nextInt(50)),
+                        TransactionType.CASH_WITHDRAWAL, date, ACCOUNT_NUMBER, "N/A");
+            } else if (roll < 95) {
+                var outgoing = random.nextBoolean();
+                transaction = new TransactionDTO(null, 100.0 * (1 + random.nextInt(100)),
+                        TransactionType.CASH_TRANSFER, date, outgoing ? ACCOUNT_NUMBER : counterparty,
+                        outgoing ? counterparty : ACCOUNT_NUMBER);
+            } else {
+                transaction = new TransactionDTO(null, Math.round(random.nextDouble() * 5_000) / 100.0,
+                        TransactionType.CASH_CREDIT, date, ACCOUNT_NUMBER, "N/A");
+            }
+
+            transaction.setId(9_000_000L - i);
+            transactions.add(transaction);
+        }
+
+        return transactions;
+    }
+
+}
@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+#
+# Compares payload size and serialization time of JSON against Smile for transaction
+# history pages, using the application's Jackson configuration. Runs in-process, so it
+# needs neither the database nor a running application.
+#
+# Usage: bench/payload-formats.sh
+#
+# WARMUP and MEASURE set the milliseconds spent per format and payload (default 3000/5000).
+# Set SKIP_BUILD=1 to reuse existing target/classes.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+if [[ "${SKIP_BUILD:-0}" != 1 ]]; then
+    sh mvnw -B -q compile
+fi
+
+CLASSPATH_FILE=target/bench.classpath
+sh mvnw -B -q dependency:build-classpath -Dmdep.outputFile="$CLASSPATH_FILE" -Dmdep.includeScope=runtime
+
+java -cp "target/classes:$(cat "$CLASSPATH_FILE")" \
+    -Dwarmup="${WARMUP:-3000}" -Dmeasure="${MEASURE:-5000}" \
+    bench/PayloadFormatBenchmark.java
@@ -0,0 +1,72 @@
+#!/usr/bin/env bash
+#
+# Measures time-to-first-request of the plain jar ("before") against the AOT-processed
+# jar running with the AppCDS archive ("after"). Each run starts the JVM and polls
+# /actuator/health until the first HTTP response arrives, whatever its status.
+#
+# Usage: cds/measure-startup.sh [runs]
+#
+# Needs the database from database/docker-compose.yml and an application.properties,
+# taken from $CONFIG (default: src/main/resources/application.properties).
+# Set SKIP_BUILD=1 to reuse an existing target/cds build.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${PORT:-8180}
+CONFIG=${CONFIG:-src/main/resources/application.properties}
+JAR_NAME=bankingportal-0.0.1-SNAPSHOT.jar
+URL="http://localhost:${PORT}/actuator/health"
+
+if [[ ! -f "$CONFIG" ]]; then
+    echo "Configuration $CONFIG not found, set CONFIG to your application.properties" >&2
+    exit 1
+fi
+
+if [[ "${SKIP_BUILD:-0}" != 1 ]]; then
+    sh mvnw -B -q -Pcds -DskipTests package
+fi
+
+# Prints the milliseconds between launching "$@" and its first HTTP response
+time_to_first_request() {
+    local start end pid
+    start=$(date +%s%N)
+    "$@" --server.port="$PORT" --spring.config.additional-location="file:$CONFIG" >/dev/null 2>&1 &
+    pid=$!
+
+    until curl -s -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Application exited before serving a request" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+
+    end=$(date +%s%N)
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo $(((end - start) / 1000000))
+}
+
+measure() {
+    local label=$1 dir=$2
+    shift 2
+    local times=()
+
+    for ((i = 0; i < RUNS; i++)); do
+        times+=("$(cd "$dir" && time_to_first_request "$@")")
+    done
+
+    local sorted
+    sorted=$(printf '%s\n' "${times[@]}" | sort -n)
+    printf '%-8s runs=%d median=%dms min=%dms max=%dms\n' "$label" "$RUNS" \
+        "$(sed -n "$(((RUNS + 1) / 2))p" <<<"$sorted")" \
+        "$(head -1 <<<"$sorted")" "$(tail -1 <<<"$sorted")"
+}
+
+CONFIG=$(realpath "$CONFIG")
+
+measure before target java -jar "$JAR_NAME"
+measure after target/cds java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar "$JAR_NAME"
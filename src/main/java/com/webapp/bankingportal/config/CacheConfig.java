@@ -22,6 +22,10 @@ public class CacheConfig {
         val cacheManager = new CaffeineCacheManager();
         cacheManager.setCacheNames(List.of("otpAttempts")); // Define the cache name
         cacheManager.setCaffeine(caffeineConfig());
+        cacheManager.registerCustomCache("otpDeliveries", Caffeine.newBuilder()
+                .expireAfterWrite(15, TimeUnit.MINUTES) // Status is only useful while the OTP is valid
+                .maximumSize(100_000)
+                .build());
         return cacheManager;
     }
 
@@ -0,0 +1,23 @@
+package com.webapp.bankingportal.config;
+
+import java.time.Clock;
+import java.time.ZoneId;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The bank's calendar. Monthly summaries, statements, transaction search
+ * bounds and interest accrual all take their days and months from this
+ * clock, so they agree on where a day ends. Defaults to the JVM zone.
+ */
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    Clock clock(@Value("${calendar.zone:}") String zone) {
+        return zone.isBlank() ? Clock.systemDefaultZone() : Clock.system(ZoneId.of(zone));
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.webapp.bankingportal.config;
+
+import java.util.ArrayList;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import lombok.val;
+
+/**
+ * Replaces the auto-configured data source with a {@link ReplicaRoutingDataSource}
+ * when read replicas are configured, e.g.
+ * {@code datasource.routing.replicas[0].url=jdbc:mysql://replica:3306/bankingapp}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.routing", name = "replicas[0].url")
+public class DataSourceRoutingConfig {
+
+    /**
+     * The primary pool, bound to {@code spring.datasource.hikari.*} the same way
+     * Boot binds the pool it would otherwise create.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        val primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+            DataSourceRoutingProperties routingProperties) {
+        val replicas = new ArrayList<ReplicaRoutingDataSource.Replica>();
+        for (val replica : routingProperties.getReplicas()) {
+            val name = "replica-" + replicas.size();
+            val dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .driverClassName(replica.getDriverClassName())
+                    .build();
+            dataSource.setPoolName(name);
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+
+            replicas.add(new ReplicaRoutingDataSource.Replica(name, dataSource, replica.getLagQuery()));
+        }
+
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, routingProperties.getMaxLag());
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    // Picked up by the auto-configured transaction manager
+    @Bean
+    ReplicaCacheModeListener replicaCacheModeListener(EntityManagerFactory entityManagerFactory) {
+        return new ReplicaCacheModeListener(entityManagerFactory);
+    }
+
+    /**
+     * Hand connections back after every transaction so that a session kept open
+     * for the whole request does not pin the first routed connection.
+     */
+    @Bean
+    HibernatePropertiesCustomizer connectionReleaseCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.webapp.bankingportal.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Read replicas that read-only transactions may be routed to. Routing is only
+ * enabled when at least one replica URL is configured; otherwise the regular
+ * {@code spring.datasource} primary is used for everything.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "datasource.routing")
+public class DataSourceRoutingProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** Replicas lagging further behind the primary than this are taken out of rotation. */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    @Data
+    public static class Replica {
+
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+
+        /**
+         * Query returning the replication lag in seconds as its first column,
+         * e.g. read from a heartbeat table. Only connectivity is checked when
+         * empty.
+         */
+        private String lagQuery;
+
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.webapp.bankingportal.config;
+
+import java.util.HashMap;
+import java.util.Locale;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.webapp.bankingportal.config.PasswordHashingProperties.Algorithm;
+import com.webapp.bankingportal.security.PasswordHashCalibrator;
+import com.webapp.bankingportal.security.PasswordHashCalibrator.Calibration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Password and PIN encoder. Hashes are prefixed with the id of their
+ * algorithm ({@code {bcrypt}}, {@code {pbkdf2}}, {@code {argon2}}); new ones
+ * use the calibrated encoder of the configured algorithm. The measured hash
+ * time is published as {@code password.hash.duration}.
+ */
+@Configuration
+@Slf4j
+public class PasswordEncoderConfig {
+
+    @Bean
+    Calibration passwordHashCalibration(PasswordHashingProperties properties) {
+        val calibration = new PasswordHashCalibrator(properties).calibrate();
+        log.info("Hashing passwords with {} at work factor {}, {} ms per hash (target {} ms)",
+                idOf(calibration.algorithm()), calibration.workFactor(), calibration.hashTime().toMillis(),
+                properties.getTarget().toMillis());
+        return calibration;
+    }
+
+    @Bean
+    PasswordEncoder passwordEncoder(PasswordHashingProperties properties, Calibration calibration) {
+        val calibrator = new PasswordHashCalibrator(properties);
+        val encoders = new HashMap<String, PasswordEncoder>();
+        encoders.put(idOf(Algorithm.BCRYPT), PasswordHashCalibrator.bcrypt(properties.getBcrypt().getStrength()));
+        encoders.put(idOf(Algorithm.PBKDF2), PasswordHashCalibrator.pbkdf2(properties.getPbkdf2().getIterations()));
+        encoders.put(idOf(Algorithm.ARGON2), calibrator.argon2(properties.getArgon2().getIterations()));
+        encoders.put(idOf(calibration.algorithm()), calibration.encoder());
+
+        val encoder = new DelegatingPasswordEncoder(idOf(calibration.algorithm()), encoders);
+        // Hashes stored before the algorithm became configurable are BCrypt without a prefix
+        encoder.setDefaultPasswordEncoderForMatches(encoders.get(idOf(Algorithm.BCRYPT)));
+        return encoder;
+    }
+
+    @Bean
+    MeterBinder passwordHashMetrics(Calibration calibration) {
+        return registry -> {
+            Gauge.builder("password.hash.duration", calibration, c -> c.hashTime().toNanos() / 1e6)
+                    .tag("algorithm", idOf(calibration.algorithm()))
+                    .baseUnit("milliseconds")
+                    .description("Time of one password hash, measured at startup")
+                    .register(registry);
+
+            Gauge.builder("password.hash.work.factor", calibration, Calibration::workFactor)
+                    .tag("algorithm", idOf(calibration.algorithm()))
+                    .description("BCrypt strength or PBKDF2/Argon2 iterations used for new hashes")
+                    .register(registry);
+        };
+    }
+
+    private static String idOf(Algorithm algorithm) {
+        return algorithm.name().toLowerCase(Locale.ROOT);
+    }
+
+}
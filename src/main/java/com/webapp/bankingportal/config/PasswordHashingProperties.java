@@ -0,0 +1,69 @@
+package com.webapp.bankingportal.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Password and PIN hashing. New hashes use {@link #algorithm}; hashes of the
+ * other algorithms, and the unprefixed BCrypt hashes written before the
+ * algorithm became configurable, are still accepted and replaced at the next
+ * successful login.
+ *
+ * With {@link #calibrate} on, the work factor of the selected algorithm is
+ * raised at startup until one hash takes about {@link #target} on this host.
+ * The configured work factors are the floor calibration never goes below.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "password-hashing")
+public class PasswordHashingProperties {
+
+    public enum Algorithm {
+        BCRYPT, PBKDF2, ARGON2
+    }
+
+    private Algorithm algorithm = Algorithm.BCRYPT;
+
+    private boolean calibrate = true;
+
+    /** Time one hash should take on this host when calibrating. */
+    private Duration target = Duration.ofMillis(50);
+
+    private Bcrypt bcrypt = new Bcrypt();
+    private Pbkdf2 pbkdf2 = new Pbkdf2();
+    private Argon2 argon2 = new Argon2();
+
+    @Data
+    public static class Bcrypt {
+
+        /** Log2 of the number of rounds. */
+        private int strength = 10;
+
+    }
+
+    @Data
+    public static class Pbkdf2 {
+
+        /** PBKDF2-HMAC-SHA256 iterations. */
+        private int iterations = 310_000;
+
+    }
+
+    @Data
+    public static class Argon2 {
+
+        /** Memory per hash in KiB; not calibrated. */
+        private int memoryKib = 19_456;
+
+        /** Passes over the memory. */
+        private int iterations = 2;
+
+        private int parallelism = 1;
+
+    }
+
+}
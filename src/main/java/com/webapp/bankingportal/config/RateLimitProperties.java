@@ -0,0 +1,72 @@
+package com.webapp.bankingportal.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.val;
+
+/**
+ * Per-route request budgets for the public endpoints that trigger password
+ * hashing, database lookups or mail delivery. Each route may be limited per
+ * client IP and per login identifier; a missing limit disables that key.
+ *
+ * Routes are overridden as a whole, for example:
+ * {@code rate-limit.routes[/api/users/login].ip.capacity=50}
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Upper bound on the number of buckets kept in memory. */
+    private long maxBuckets = 100_000;
+
+    private Map<String, Route> routes = defaultRoutes();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Route {
+
+        private Limit ip;
+        private Limit identifier;
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        /** Maximum burst of requests. */
+        private int capacity;
+
+        /** Time it takes to refill an empty bucket. */
+        private Duration period;
+
+    }
+
+    private static Map<String, Route> defaultRoutes() {
+        val routes = new HashMap<String, Route>();
+        routes.put("/api/users/login", new Route(
+                new Limit(20, Duration.ofMinutes(1)),
+                new Limit(5, Duration.ofMinutes(1))));
+        routes.put("/api/users/generate-otp", new Route(
+                new Limit(10, Duration.ofMinutes(1)),
+                new Limit(3, Duration.ofMinutes(5))));
+        routes.put("/api/auth/password-reset/send-otp", new Route(
+                new Limit(10, Duration.ofMinutes(1)),
+                new Limit(3, Duration.ofMinutes(5))));
+        return routes;
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.webapp.bankingportal.config;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+/**
+ * Keeps entities read from a replica out of the per-instance second-level
+ * cache. Read-only transactions may be routed to a lagging replica, so their
+ * sessions only read from the cache and never put into it; a stale balance or
+ * PIN hash would otherwise be served to later reads on the primary. Every
+ * other transaction switches its session back to the normal cache mode, which
+ * matters when a session outlives a transaction, as with open-in-view.
+ */
+@RequiredArgsConstructor
+public class ReplicaCacheModeListener implements TransactionExecutionListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure != null) {
+            return;
+        }
+
+        val holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+        if (holder != null) {
+            holder.getEntityManager().unwrap(Session.class)
+                    .setCacheMode(transaction.isReadOnly() ? CacheMode.GET : CacheMode.NORMAL);
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.webapp.bankingportal.config;
+
+import java.io.Closeable;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Routes read-only transactions to a healthy replica and everything else to
+ * the primary. Once a request has opened a read-write transaction it stays on
+ * the primary for the rest of the request, so it always reads its own writes.
+ *
+ * Must be wrapped in a {@code LazyConnectionDataSourceProxy}: the read-only
+ * flag of a transaction is only known after the transaction manager has asked
+ * for a connection.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final String PRIMARY = "primary";
+    private static final String PRIMARY_PINNED_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".PRIMARY_PINNED";
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    @RequiredArgsConstructor
+    public static class Replica {
+
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final String lagQuery;
+        private volatile boolean healthy = true;
+
+    }
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<Replica> replicas, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLag = maxLag;
+
+        val targetDataSources = new HashMap<Object, Object>();
+        targetDataSources.put(PRIMARY, primary);
+        replicas.forEach(replica -> targetDataSources.put(replica.name, replica.dataSource));
+
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                pinToPrimary();
+            }
+
+            return PRIMARY;
+        }
+
+        if (isPinnedToPrimary()) {
+            return PRIMARY;
+        }
+
+        for (var i = 0; i < replicas.size(); i++) {
+            val replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (replica.healthy) {
+                return replica.name;
+            }
+        }
+
+        return PRIMARY;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.routing.health-check-interval:10000}")
+    public void checkReplicas() {
+        replicas.forEach(this::checkReplica);
+    }
+
+    private void checkReplica(Replica replica) {
+        var healthy = false;
+
+        try (val connection = replica.dataSource.getConnection()) {
+            healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+
+            if (healthy && replica.lagQuery != null && !replica.lagQuery.isBlank()) {
+                try (val statement = connection.createStatement();
+                        val resultSet = statement.executeQuery(replica.lagQuery)) {
+                    // A NULL lag means replication is not running
+                    val lag = resultSet.next() ? resultSet.getObject(1, Long.class) : null;
+                    healthy = lag != null && lag <= maxLag.toSeconds();
+                }
+            }
+
+        } catch (SQLException e) {
+            log.warn("Health check failed for replica {}: {}", replica.name, e.getMessage());
+        }
+
+        if (replica.healthy != healthy) {
+            log.warn("Replica {} is now {}", replica.name, healthy ? "in rotation" : "out of rotation");
+        }
+
+        replica.healthy = healthy;
+    }
+
+    private static void pinToPrimary() {
+        val attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(PRIMARY_PINNED_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private static boolean isPinnedToPrimary() {
+        val attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null
+                && attributes.getAttribute(PRIMARY_PINNED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+}
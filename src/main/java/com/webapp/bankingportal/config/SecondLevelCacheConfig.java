@@ -0,0 +1,61 @@
+package com.webapp.bankingportal.config;
+
+import java.util.OptionalLong;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import lombok.val;
+
+/**
+ * Hibernate second-level cache for {@code Account} and {@code User} backed by
+ * Caffeine through JCache. Regions are created up front with explicit sizes
+ * from {@link SecondLevelCacheProperties}. Statistics are enabled so that the
+ * per-region hit, miss and put counters are published as
+ * {@code hibernate.second.level.cache.*} metrics.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager(SecondLevelCacheProperties properties) {
+        val provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        val cacheManager = provider.getCacheManager();
+
+        properties.getRegions().forEach((name, region) -> {
+            val configuration = new CaffeineConfiguration<Object, Object>();
+            configuration.setMaximumSize(OptionalLong.of(region.getMaxSize()));
+            configuration.setExpireAfterWrite(OptionalLong.of(region.getExpireAfterWrite().toNanos()));
+            configuration.setStatisticsEnabled(true);
+
+            if (cacheManager.getCache(name) != null) {
+                cacheManager.destroyCache(name);
+            }
+            cacheManager.createCache(name, configuration);
+        });
+
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+}
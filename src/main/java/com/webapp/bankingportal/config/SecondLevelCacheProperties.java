@@ -0,0 +1,50 @@
+package com.webapp.bankingportal.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.webapp.bankingportal.entity.Account;
+import com.webapp.bankingportal.entity.User;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.val;
+
+/**
+ * Sizing of the Hibernate second-level cache regions. Every region used by an
+ * entity must be listed here; Hibernate refuses to start on a missing one.
+ *
+ * Regions are overridden as a whole, for example:
+ * {@code l2-cache.regions.account.max-size=50000}
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "l2-cache")
+public class SecondLevelCacheProperties {
+
+    private Map<String, Region> regions = defaultRegions();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Region {
+
+        private long maxSize;
+        private Duration expireAfterWrite;
+    }
+
+    private static Map<String, Region> defaultRegions() {
+        val regions = new HashMap<String, Region>();
+        regions.put(Account.CACHE_REGION, new Region(10_000, Duration.ofMinutes(10)));
+        regions.put(Account.NATURAL_ID_CACHE_REGION, new Region(10_000, Duration.ofMinutes(10)));
+        regions.put(User.CACHE_REGION, new Region(10_000, Duration.ofMinutes(10)));
+        regions.put(User.NATURAL_ID_CACHE_REGION, new Region(10_000, Duration.ofMinutes(10)));
+        return regions;
+    }
+
+}
@@ -1,24 +1,21 @@
 package com.webapp.bankingportal.config;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import com.webapp.bankingportal.security.JwtAuthenticationEntryPoint;
 import com.webapp.bankingportal.security.JwtAuthenticationFilter;
-import com.webapp.bankingportal.service.TokenService;
+import com.webapp.bankingportal.security.LoginAuthenticationProvider;
+import com.webapp.bankingportal.security.RateLimitFilter;
 
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -38,6 +35,8 @@ public class WebSecurityConfig {
             "/api/auth/password-reset",
             "/api/users/generate-otp",
             "/api/users/verify-otp",
+            "/api/users/otp/status/*",
+            "/api/users/token/refresh",
             "swagger-ui.html",
             "/v3/api-docs/**",
             "/swagger-ui/**",
@@ -46,23 +45,12 @@ public class WebSecurityConfig {
 
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
-    private final TokenService tokenService;
-
-    @Autowired
-    public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(tokenService).passwordEncoder(passwordEncoder());
-    }
-
-    @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    private final RateLimitFilter rateLimitFilter;
 
+    // Password logins are the only kind; API requests authenticate through the JWT filter
     @Bean
-    AuthenticationManager authenticationManager(
-            AuthenticationConfiguration authenticationConfiguration)
-            throws Exception {
-        return authenticationConfiguration.getAuthenticationManager();
+    AuthenticationManager authenticationManager(LoginAuthenticationProvider loginAuthenticationProvider) {
+        return new ProviderManager(loginAuthenticationProvider);
     }
 
     @Bean
@@ -85,6 +73,7 @@ public class WebSecurityConfig {
 
         http.addFilterBefore(jwtAuthenticationFilter,
                 UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
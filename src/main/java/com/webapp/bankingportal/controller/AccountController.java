@@ -1,9 +1,13 @@
 package com.webapp.bankingportal.controller;
 
+import java.util.List;
+
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -11,10 +15,13 @@ import com.webapp.bankingportal.dto.AmountRequest;
 import com.webapp.bankingportal.dto.FundTransferRequest;
 import com.webapp.bankingportal.dto.PinRequest;
 import com.webapp.bankingportal.dto.PinUpdateRequest;
+import com.webapp.bankingportal.dto.TransactionDTO;
+import com.webapp.bankingportal.dto.TransactionPageResponse;
+import com.webapp.bankingportal.dto.TransactionSearchRequest;
 import com.webapp.bankingportal.service.AccountService;
+import com.webapp.bankingportal.service.IdempotencyService;
 import com.webapp.bankingportal.service.TransactionService;
 import com.webapp.bankingportal.util.ApiMessages;
-import com.webapp.bankingportal.util.JsonUtil;
 import com.webapp.bankingportal.util.LoggedinUser;
 
 import lombok.RequiredArgsConstructor;
@@ -25,7 +32,10 @@ import lombok.val;
 @RequiredArgsConstructor
 public class AccountController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final AccountService accountService;
+    private final IdempotencyService idempotencyService;
     private final TransactionService transactionService;
 
     @GetMapping("/pin/check")
@@ -59,41 +69,59 @@ public class AccountController {
     }
 
     @PostMapping("/deposit")
-    public ResponseEntity<String> cashDeposit(@RequestBody AmountRequest amountRequest) {
-        accountService.cashDeposit(
-                LoggedinUser.getAccountNumber(),
-                amountRequest.pin(),
-                amountRequest.amount());
-
-        return ResponseEntity.ok(ApiMessages.CASH_DEPOSIT_SUCCESS.getMessage());
+    public ResponseEntity<String> cashDeposit(@RequestBody AmountRequest amountRequest,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        val accountNumber = LoggedinUser.getAccountNumber();
+        val fingerprint = "deposit:" + amountRequest.amount();
+
+        return idempotencyService.execute(accountNumber, idempotencyKey, fingerprint, () -> {
+            accountService.cashDeposit(accountNumber, amountRequest.pin(), amountRequest.amount());
+            return ResponseEntity.ok(ApiMessages.CASH_DEPOSIT_SUCCESS.getMessage());
+        });
     }
 
     @PostMapping("/withdraw")
-    public ResponseEntity<String> cashWithdrawal(@RequestBody AmountRequest amountRequest) {
-        accountService.cashWithdrawal(
-                LoggedinUser.getAccountNumber(),
-                amountRequest.pin(),
-                amountRequest.amount());
-
-        return ResponseEntity.ok(ApiMessages.CASH_WITHDRAWAL_SUCCESS.getMessage());
+    public ResponseEntity<String> cashWithdrawal(@RequestBody AmountRequest amountRequest,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        val accountNumber = LoggedinUser.getAccountNumber();
+        val fingerprint = "withdraw:" + amountRequest.amount();
+
+        return idempotencyService.execute(accountNumber, idempotencyKey, fingerprint, () -> {
+            accountService.cashWithdrawal(accountNumber, amountRequest.pin(), amountRequest.amount());
+            return ResponseEntity.ok(ApiMessages.CASH_WITHDRAWAL_SUCCESS.getMessage());
+        });
     }
 
     @PostMapping("/fund-transfer")
-    public ResponseEntity<String> fundTransfer(@RequestBody FundTransferRequest fundTransferRequest) {
-        accountService.fundTransfer(
-                LoggedinUser.getAccountNumber(),
-                fundTransferRequest.targetAccountNumber(),
-                fundTransferRequest.pin(),
-                fundTransferRequest.amount());
-
-        return ResponseEntity.ok(ApiMessages.CASH_TRANSFER_SUCCESS.getMessage());
+    public ResponseEntity<String> fundTransfer(@RequestBody FundTransferRequest fundTransferRequest,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        val accountNumber = LoggedinUser.getAccountNumber();
+        val fingerprint = "fund-transfer:" + fundTransferRequest.targetAccountNumber()
+                + ":" + fundTransferRequest.amount();
+
+        return idempotencyService.execute(accountNumber, idempotencyKey, fingerprint, () -> {
+            accountService.fundTransfer(
+                    accountNumber,
+                    fundTransferRequest.targetAccountNumber(),
+                    fundTransferRequest.pin(),
+                    fundTransferRequest.amount());
+
+            return ResponseEntity.ok(ApiMessages.CASH_TRANSFER_SUCCESS.getMessage());
+        });
     }
 
     @GetMapping("/transactions")
-    public ResponseEntity<String> getAllTransactionsByAccountNumber() {
+    public ResponseEntity<List<TransactionDTO>> getAllTransactionsByAccountNumber() {
         val transactions = transactionService
                 .getAllTransactionsByAccountNumber(LoggedinUser.getAccountNumber());
-        return ResponseEntity.ok(JsonUtil.toJson(transactions));
+        return ResponseEntity.ok(transactions);
+    }
+
+    @GetMapping("/transactions/search")
+    public ResponseEntity<TransactionPageResponse> searchTransactions(@ModelAttribute TransactionSearchRequest searchRequest) {
+        val transactionPage = transactionService
+                .searchTransactions(LoggedinUser.getAccountNumber(), searchRequest);
+        return ResponseEntity.ok(transactionPage);
     }
 
 }
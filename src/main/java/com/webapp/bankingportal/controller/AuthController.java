@@ -3,8 +3,10 @@ package com.webapp.bankingportal.controller;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.webapp.bankingportal.dto.OtpQueuedResponse;
 import com.webapp.bankingportal.dto.OtpRequest;
 import com.webapp.bankingportal.dto.OtpVerificationRequest;
+import com.webapp.bankingportal.dto.PasswordResetTokenResponse;
 import com.webapp.bankingportal.dto.ResetPasswordRequest;
 import com.webapp.bankingportal.service.AuthService;
 
@@ -18,12 +20,12 @@ public class AuthController {
     private final AuthService authService;
 
     @PostMapping("/password-reset/send-otp")
-    public ResponseEntity<String> sendOtpForPasswordReset(@RequestBody OtpRequest otpRequest) {
+    public ResponseEntity<OtpQueuedResponse> sendOtpForPasswordReset(@RequestBody OtpRequest otpRequest) {
         return authService.sendOtpForPasswordReset(otpRequest);
     }
 
     @PostMapping("/password-reset/verify-otp")
-    public ResponseEntity<String> verifyOtpAndIssueResetToken(
+    public ResponseEntity<PasswordResetTokenResponse> verifyOtpAndIssueResetToken(
             @RequestBody OtpVerificationRequest otpVerificationRequest) {
         return authService.verifyOtpAndIssueResetToken(otpVerificationRequest);
     }
@@ -1,13 +1,21 @@
 package com.webapp.bankingportal.controller;
 
+import java.util.List;
+
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.webapp.bankingportal.dto.AccountResponse;
+import com.webapp.bankingportal.dto.DashboardOverviewResponse;
+import com.webapp.bankingportal.dto.MonthlySummaryResponse;
+import com.webapp.bankingportal.dto.UserResponse;
 import com.webapp.bankingportal.service.DashboardService;
-import com.webapp.bankingportal.util.JsonUtil;
 import com.webapp.bankingportal.util.LoggedinUser;
 
 import lombok.RequiredArgsConstructor;
@@ -18,20 +26,54 @@ import lombok.val;
 @RequiredArgsConstructor
 public class DashboardController {
 
+    private static final int MAX_SUMMARY_MONTHS = 120;
+
     private final DashboardService dashboardService;
 
     @GetMapping("/user")
-    public ResponseEntity<String> getUserDetails() {
+    public ResponseEntity<UserResponse> getUserDetails() {
         val accountNumber = LoggedinUser.getAccountNumber();
         val userResponse = dashboardService.getUserDetails(accountNumber);
-        return ResponseEntity.ok(JsonUtil.toJson(userResponse));
+        return ResponseEntity.ok(userResponse);
     }
 
     @GetMapping("/account")
-    public ResponseEntity<String> getAccountDetails() {
+    public ResponseEntity<AccountResponse> getAccountDetails() {
         val accountNumber = LoggedinUser.getAccountNumber();
         val accountResponse = dashboardService.getAccountDetails(accountNumber);
-        return ResponseEntity.ok(JsonUtil.toJson(accountResponse));
+        return ResponseEntity.ok(accountResponse);
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<List<MonthlySummaryResponse>> getMonthlySummaries(@RequestParam(defaultValue = "12") int months) {
+        val accountNumber = LoggedinUser.getAccountNumber();
+        val summaries = dashboardService.getMonthlySummaries(accountNumber,
+                Math.max(1, Math.min(months, MAX_SUMMARY_MONTHS)));
+        return ResponseEntity.ok(summaries);
+    }
+
+    /**
+     * User, account and first transaction page in one response. The ETag is
+     * the account revision, so a client revalidating an unchanged dashboard
+     * gets a 304 after a single primary-key read.
+     */
+    @GetMapping("/overview")
+    public ResponseEntity<DashboardOverviewResponse> getOverview(WebRequest request) {
+        val accountNumber = LoggedinUser.getAccountNumber();
+        if (request.checkNotModified(overviewETag(accountNumber, dashboardService.getRevision(accountNumber)))) {
+            return null;
+        }
+
+        val overview = dashboardService.getOverview(accountNumber);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(overviewETag(accountNumber, overview.revision()))
+                .body(overview);
+    }
+
+    // Revisions are per account, so the account number keeps ETags of different users apart
+    private static String overviewETag(String accountNumber, long revision) {
+        return "\"" + accountNumber + "-" + revision + "\"";
     }
 
 }
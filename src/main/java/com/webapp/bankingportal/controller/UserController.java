@@ -2,6 +2,7 @@ package com.webapp.bankingportal.controller;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
@@ -10,8 +11,13 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.ModelAndView;
 
 import com.webapp.bankingportal.dto.LoginRequest;
+import com.webapp.bankingportal.dto.OtpDeliveryResponse;
+import com.webapp.bankingportal.dto.OtpQueuedResponse;
 import com.webapp.bankingportal.dto.OtpRequest;
 import com.webapp.bankingportal.dto.OtpVerificationRequest;
+import com.webapp.bankingportal.dto.RefreshTokenRequest;
+import com.webapp.bankingportal.dto.TokenResponse;
+import com.webapp.bankingportal.dto.UserResponse;
 import com.webapp.bankingportal.entity.User;
 import com.webapp.bankingportal.exception.InvalidTokenException;
 import com.webapp.bankingportal.service.UserService;
@@ -28,31 +34,43 @@ public class UserController {
     private final UserService userService;
 
     @PostMapping("/register")
-    public ResponseEntity<String> registerUser(@RequestBody User user) {
+    public ResponseEntity<UserResponse> registerUser(@RequestBody User user) {
         return userService.registerUser(user);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<String> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request)
+    public ResponseEntity<TokenResponse> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request)
             throws InvalidTokenException {
 
         return userService.login(loginRequest, request);
     }
 
     @PostMapping("/generate-otp")
-    public ResponseEntity<String> generateOtp(@RequestBody OtpRequest otpRequest) {
+    public ResponseEntity<OtpQueuedResponse> generateOtp(@RequestBody OtpRequest otpRequest) {
         return userService.generateOtp(otpRequest);
     }
 
+    @GetMapping("/otp/status/{deliveryId}")
+    public ResponseEntity<OtpDeliveryResponse> getOtpDeliveryStatus(@PathVariable String deliveryId) {
+        return userService.getOtpDeliveryStatus(deliveryId);
+    }
+
     @PostMapping("/verify-otp")
-    public ResponseEntity<String> verifyOtpAndLogin(@RequestBody OtpVerificationRequest otpVerificationRequest)
+    public ResponseEntity<TokenResponse> verifyOtpAndLogin(@RequestBody OtpVerificationRequest otpVerificationRequest)
             throws InvalidTokenException {
 
         return userService.verifyOtpAndLogin(otpVerificationRequest);
     }
 
+    @PostMapping("/token/refresh")
+    public ResponseEntity<TokenResponse> refreshToken(@RequestBody RefreshTokenRequest refreshTokenRequest)
+            throws InvalidTokenException {
+
+        return userService.refreshToken(refreshTokenRequest);
+    }
+
     @PostMapping("/update")
-    public ResponseEntity<String> updateUser(@RequestBody User user) {
+    public ResponseEntity<UserResponse> updateUser(@RequestBody User user) {
         return userService.updateUser(user);
     }
 
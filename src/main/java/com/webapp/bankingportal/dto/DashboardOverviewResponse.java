@@ -0,0 +1,10 @@
+package com.webapp.bankingportal.dto;
+
+/**
+ * Everything the dashboard shows on load, read in one transaction.
+ * {@code revision} is the account revision the data was read at and is the
+ * basis of the response's ETag.
+ */
+public record DashboardOverviewResponse(long revision, UserResponse user, AccountResponse account,
+        TransactionPageResponse transactions) {
+}
@@ -0,0 +1,14 @@
+package com.webapp.bankingportal.dto;
+
+/**
+ * Outcome of one interest accrual partition in a single run. Accounts and
+ * interest only count work done by this run, not chunks committed by an
+ * earlier, interrupted run.
+ */
+public record InterestAccrualPartitionReport(long startId, long endId, long accountsCredited,
+        double interestCredited, long elapsedMillis, boolean completed) {
+
+    public double accountsPerSecond() {
+        return elapsedMillis > 0 ? accountsCredited * 1000.0 / elapsedMillis : accountsCredited;
+    }
+}
@@ -0,0 +1,20 @@
+package com.webapp.bankingportal.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record InterestAccrualReport(LocalDate accrualDate, List<InterestAccrualPartitionReport> partitions,
+        long elapsedMillis) {
+
+    public long accountsCredited() {
+        return partitions.stream().mapToLong(InterestAccrualPartitionReport::accountsCredited).sum();
+    }
+
+    public double interestCredited() {
+        return partitions.stream().mapToDouble(InterestAccrualPartitionReport::interestCredited).sum();
+    }
+
+    public boolean completed() {
+        return partitions.stream().allMatch(InterestAccrualPartitionReport::completed);
+    }
+}
@@ -0,0 +1,24 @@
+package com.webapp.bankingportal.dto;
+
+import java.time.YearMonth;
+
+import com.webapp.bankingportal.entity.AccountMonthlySummary;
+
+/**
+ * Money movement totals of one month. Withdrawal and outgoing transfer totals
+ * are positive amounts.
+ */
+public record MonthlySummaryResponse(String month, double depositTotal, long depositCount,
+        double withdrawalTotal, long withdrawalCount, double transferInTotal, long transferInCount,
+        double transferOutTotal, long transferOutCount, double creditTotal, long creditCount,
+        long transactionCount) {
+
+    public MonthlySummaryResponse(AccountMonthlySummary summary) {
+        this(YearMonth.from(summary.getMonth()).toString(), summary.getDepositTotal(), summary.getDepositCount(),
+                summary.getWithdrawalTotal(), summary.getWithdrawalCount(), summary.getTransferInTotal(),
+                summary.getTransferInCount(), summary.getTransferOutTotal(), summary.getTransferOutCount(),
+                summary.getCreditTotal(), summary.getCreditCount(),
+                summary.getDepositCount() + summary.getWithdrawalCount() + summary.getTransferInCount()
+                        + summary.getTransferOutCount() + summary.getCreditCount());
+    }
+}
@@ -0,0 +1,7 @@
+package com.webapp.bankingportal.dto;
+
+public enum OtpDeliveryStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
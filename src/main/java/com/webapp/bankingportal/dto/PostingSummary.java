@@ -0,0 +1,13 @@
+package com.webapp.bankingportal.dto;
+
+import java.util.Date;
+
+import com.webapp.bankingportal.entity.TransactionType;
+
+/**
+ * The posting columns needed to render transaction history, selected with a
+ * constructor expression so history reads never load managed entities.
+ */
+public record PostingSummary(long seq, Long transactionId, double amount, TransactionType transactionType,
+        Date transactionDate, String counterpartyAccountNumber) {
+}
@@ -0,0 +1,4 @@
+package com.webapp.bankingportal.dto;
+
+public record RefreshTokenRequest(String refreshToken) {
+}
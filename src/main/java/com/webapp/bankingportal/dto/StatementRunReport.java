@@ -0,0 +1,8 @@
+package com.webapp.bankingportal.dto;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public record StatementRunReport(YearMonth month, List<StatementStageReport> stages, long spilledStatements,
+        long elapsedMillis) {
+}
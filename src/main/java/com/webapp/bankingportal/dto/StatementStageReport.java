@@ -0,0 +1,14 @@
+package com.webapp.bankingportal.dto;
+
+/**
+ * Throughput of one stage of a statement run. Elapsed time is wall-clock time
+ * from the start of the run until the stage drained; busy time is the sum of
+ * the time its workers spent on individual statements.
+ */
+public record StatementStageReport(String stage, long processed, long failed, long elapsedMillis,
+        long busyMillis) {
+
+    public double processedPerSecond() {
+        return elapsedMillis > 0 ? processed * 1000.0 / elapsedMillis : processed;
+    }
+}
@@ -2,7 +2,6 @@ package com.webapp.bankingportal.dto;
 
 import java.util.Date;
 
-import com.webapp.bankingportal.entity.Transaction;
 import com.webapp.bankingportal.entity.TransactionType;
 
 import lombok.AllArgsConstructor;
@@ -22,20 +21,23 @@ public class TransactionDTO {
     private String sourceAccountNumber;
     private String targetAccountNumber;
 
-    public TransactionDTO(Transaction transaction) {
-        this.id = transaction.getId();
-        this.amount = transaction.getAmount();
-        this.transactionType = transaction.getTransactionType();
-        this.transactionDate = transaction.getTransactionDate();
-        this.sourceAccountNumber = transaction.getSourceAccount().getAccountNumber();
-
-        val targetAccount = transaction.getTargetAccount();
-        var targetAccountNumber = "N/A";
-        if (targetAccount != null) {
-            targetAccountNumber = targetAccount.getAccountNumber();
+    public TransactionDTO(PostingSummary posting, String accountNumber) {
+        this.id = posting.transactionId();
+        this.amount = Math.abs(posting.amount());
+        this.transactionType = posting.transactionType();
+        this.transactionDate = posting.transactionDate();
+
+        val counterparty = posting.counterpartyAccountNumber();
+        if (counterparty == null) {
+            this.sourceAccountNumber = accountNumber;
+            this.targetAccountNumber = "N/A";
+        } else if (posting.amount() < 0) {
+            this.sourceAccountNumber = accountNumber;
+            this.targetAccountNumber = counterparty;
+        } else {
+            this.sourceAccountNumber = counterparty;
+            this.targetAccountNumber = accountNumber;
         }
-
-        this.targetAccountNumber = targetAccountNumber;
     }
 
 }
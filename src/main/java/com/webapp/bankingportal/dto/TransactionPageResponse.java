@@ -0,0 +1,11 @@
+package com.webapp.bankingportal.dto;
+
+import java.util.List;
+
+/**
+ * A page of transactions. {@code nextCursor} is passed back as the
+ * {@code cursor} parameter to fetch the following page and is null on the
+ * last page.
+ */
+public record TransactionPageResponse(List<TransactionDTO> transactions, Long nextCursor) {
+}
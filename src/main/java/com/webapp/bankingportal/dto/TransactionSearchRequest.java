@@ -0,0 +1,20 @@
+package com.webapp.bankingportal.dto;
+
+import java.time.LocalDate;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import com.webapp.bankingportal.entity.TransactionType;
+
+public record TransactionSearchRequest(
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+        TransactionType type,
+        Double minAmount,
+        Double maxAmount,
+        String counterparty,
+        Long cursor,
+        Integer size,
+        Sort.Direction sort) {
+}
@@ -0,0 +1,4 @@
+package com.webapp.bankingportal.dto;
+
+public record UserIdentifiers(String email, String phoneNumber, String accountNumber) {
+}
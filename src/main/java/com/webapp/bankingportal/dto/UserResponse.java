@@ -1,5 +1,6 @@
 package com.webapp.bankingportal.dto;
 
+import com.webapp.bankingportal.entity.Account;
 import com.webapp.bankingportal.entity.User;
 
 import lombok.Data;
@@ -20,15 +21,21 @@ public class UserResponse {
     private String accountType;
 
     public UserResponse(User user) {
+        this(user, user.getAccount());
+    }
+
+    // For callers that reached the user through its account, which would
+    // otherwise be looked up again through the lazy User.account
+    public UserResponse(User user, Account account) {
         this.name = user.getName();
         this.email = user.getEmail();
         this.countryCode = user.getCountryCode();
         this.phoneNumber = user.getPhoneNumber();
         this.address = user.getAddress();
-        this.accountNumber = user.getAccount().getAccountNumber();
-        this.ifscCode = user.getAccount().getIfscCode();
-        this.branch = user.getAccount().getBranch();
-        this.accountType = user.getAccount().getAccountType();
+        this.accountNumber = account.getAccountNumber();
+        this.ifscCode = account.getIfscCode();
+        this.branch = account.getBranch();
+        this.accountType = account.getAccountType();
     }
 
 }
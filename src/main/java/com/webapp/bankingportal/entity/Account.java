@@ -3,33 +3,57 @@ package com.webapp.bankingportal.entity;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = Account.ACCOUNT_NUMBER_CONSTRAINT, columnNames = Account.ACCOUNT_NUMBER_COLUMN))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Account.CACHE_REGION)
+@NaturalIdCache(region = Account.NATURAL_ID_CACHE_REGION)
+@NamedEntityGraph(name = Account.WITH_USER, attributeNodes = @NamedAttributeNode("user"))
 @Data
 public class Account {
 
+    public static final String ACCOUNT_NUMBER_CONSTRAINT = "uk_account_number";
+    public static final String ACCOUNT_NUMBER_COLUMN = "account_number";
+    public static final String CACHE_REGION = "account";
+    public static final String NATURAL_ID_CACHE_REGION = "account-natural-id";
+    public static final String SAVINGS_ACCOUNT_TYPE = "Savings";
+    public static final String WITH_USER = "Account.withUser";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @NotEmpty
-    @Column(unique = true)
+    @NaturalId
+    @Column(name = ACCOUNT_NUMBER_COLUMN)
     private String accountNumber;
 
     @NotEmpty
-    private String accountType = "Savings";
+    private String accountType = SAVINGS_ACCOUNT_TYPE;
 
     private String accountStatus;
     private double balance;
@@ -37,12 +61,23 @@ public class Account {
     private String ifscCode = "NIT001";
     private String Pin;
 
+    // Sequence number of the latest posting written for this account
+    private long lastPostingSeq;
+
+    // Bumped on every balance or profile change; identifies a dashboard state
+    private long revision;
+
+    // Lazy associations stay out of equals, hashCode and toString so those never load them
     @NotNull
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
-    @OneToMany(mappedBy = "account", cascade = CascadeType.ALL)
-    private List<Token> tokens = new ArrayList<>();
+    @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<RefreshToken> tokens = new ArrayList<>();
 
 }
@@ -0,0 +1,110 @@
+package com.webapp.bankingportal.entity;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Money movement totals of one account for one calendar month. Rows are
+ * upserted in the same transaction as every posting, so dashboard summaries
+ * read one row per month instead of aggregating the account's history.
+ */
+@Entity
+// The constraint matching the primary key only fixes the key's column order:
+// account first, so an account's months are one clustered index range
+@Table(name = "account_monthly_summary", uniqueConstraints = @UniqueConstraint(
+        name = "pk_account_monthly_summary", columnNames = { "account_id", "month" }))
+@IdClass(AccountMonthlySummaryId.class)
+@Data
+@NoArgsConstructor
+public class AccountMonthlySummary {
+
+    /** The counter pair a posting is added to. */
+    public enum Movement {
+        DEPOSIT("deposit"),
+        WITHDRAWAL("withdrawal"),
+        TRANSFER_IN("transfer_in"),
+        TRANSFER_OUT("transfer_out"),
+        CREDIT("credit");
+
+        private final String upsertSql;
+
+        Movement(String column) {
+            // Parameters: account id, month, amount
+            this.upsertSql = "INSERT INTO account_monthly_summary (account_id, month, " + column + "_total, "
+                    + column + "_count) VALUES (?, ?, ?, 1) ON DUPLICATE KEY UPDATE " + column + "_total = "
+                    + column + "_total + VALUES(" + column + "_total), " + column + "_count = " + column
+                    + "_count + 1";
+        }
+
+        public String upsertSql() {
+            return upsertSql;
+        }
+
+        /** Transfers are split by the sign of the posting amount. */
+        public static Movement of(TransactionType transactionType, double amount) {
+            return switch (transactionType) {
+                case CASH_DEPOSIT -> DEPOSIT;
+                case CASH_WITHDRAWAL -> WITHDRAWAL;
+                case CASH_TRANSFER -> amount < 0 ? TRANSFER_OUT : TRANSFER_IN;
+                case CASH_CREDIT -> CREDIT;
+            };
+        }
+    }
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    /** First day of the calendar month. */
+    @Id
+    private LocalDate month;
+
+    @ColumnDefault("0")
+    private double depositTotal;
+
+    @ColumnDefault("0")
+    private long depositCount;
+
+    @ColumnDefault("0")
+    private double withdrawalTotal;
+
+    @ColumnDefault("0")
+    private long withdrawalCount;
+
+    @ColumnDefault("0")
+    private double transferInTotal;
+
+    @ColumnDefault("0")
+    private long transferInCount;
+
+    @ColumnDefault("0")
+    private double transferOutTotal;
+
+    @ColumnDefault("0")
+    private long transferOutCount;
+
+    @ColumnDefault("0")
+    private double creditTotal;
+
+    @ColumnDefault("0")
+    private long creditCount;
+
+    /** The summary month a movement at the given time belongs to in the given zone. */
+    public static LocalDate monthOf(Date date, ZoneId zone) {
+        return date.toInstant().atZone(zone).toLocalDate().withDayOfMonth(1);
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.webapp.bankingportal.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountMonthlySummaryId implements Serializable {
+
+    private Long accountId;
+    private LocalDate month;
+
+}
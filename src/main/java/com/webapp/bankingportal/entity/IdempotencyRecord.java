@@ -0,0 +1,71 @@
+package com.webapp.bankingportal.entity;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stored outcome of a money movement submitted with an {@code Idempotency-Key}
+ * header. A row is inserted without a status code to claim the key before the
+ * movement runs, completed with the response afterwards, and purged once it is
+ * older than the idempotency window.
+ */
+@Entity
+@Table(name = "idempotency_record", uniqueConstraints = @UniqueConstraint(
+        name = "uk_idempotency_account_key", columnNames = { "account_number", "idempotency_key" }),
+        indexes = @Index(name = "idx_idempotency_created_at", columnList = "created_at"))
+@NoArgsConstructor
+@Data
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotEmpty
+    @Column(name = "account_number", nullable = false)
+    private String accountNumber;
+
+    @NotEmpty
+    @Column(name = "idempotency_key", nullable = false, length = 64)
+    private String idempotencyKey;
+
+    // SHA-256 of the request fingerprint, in hex
+    @NotEmpty
+    @Column(name = "request_digest", nullable = false, length = 64)
+    private String requestDigest;
+
+    // Null while the request that claimed the key is still running
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    @Column(name = "response_body", length = 1024)
+    private String responseBody;
+
+    @NotNull
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt = new Date();
+
+    public IdempotencyRecord(String accountNumber, String idempotencyKey, String requestDigest) {
+        this.accountNumber = accountNumber;
+        this.idempotencyKey = idempotencyKey;
+        this.requestDigest = requestDigest;
+    }
+
+    public boolean isPending() {
+        return statusCode == null;
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.webapp.bankingportal.entity;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of one interest accrual partition, the account id range
+ * (startId, endId], for one accrual date. It is updated in the same
+ * transaction as each chunk of credits, so a restarted run resumes after
+ * {@link #lastAccountId} and never credits an account twice for a day.
+ */
+@Entity
+@Table(name = "interest_accrual_checkpoint", uniqueConstraints = @UniqueConstraint(
+        name = "uk_interest_accrual_partition", columnNames = { "accrual_date", "start_id" }))
+@NoArgsConstructor
+@Data
+public class InterestAccrualCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "accrual_date", nullable = false)
+    private LocalDate accrualDate;
+
+    @Column(name = "start_id", nullable = false)
+    private long startId;
+
+    @Column(name = "end_id", nullable = false)
+    private long endId;
+
+    @Column(name = "last_account_id", nullable = false)
+    private long lastAccountId;
+
+    private long accountsCredited;
+
+    private double interestCredited;
+
+    private boolean completed;
+
+    @NotNull
+    @Column(name = "updated_at", nullable = false)
+    private Date updatedAt = new Date();
+
+    public InterestAccrualCheckpoint(LocalDate accrualDate, long startId, long endId) {
+        this.accrualDate = accrualDate;
+        this.startId = startId;
+        this.endId = endId;
+        this.lastAccountId = startId;
+    }
+
+}
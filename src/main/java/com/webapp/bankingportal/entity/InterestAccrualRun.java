@@ -0,0 +1,51 @@
+package com.webapp.bankingportal.entity;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The interest accrual of one date and the partition size its
+ * {@link InterestAccrualCheckpoint checkpoints} were laid out with. A run
+ * resumed with another partition size would map onto different ranges and
+ * credit the accounts of completed ones again, so it is refused.
+ */
+@Entity
+@Table(name = "interest_accrual_run", uniqueConstraints = @UniqueConstraint(
+        name = "uk_interest_accrual_run_date", columnNames = "accrual_date"))
+@NoArgsConstructor
+@Data
+public class InterestAccrualRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "accrual_date", nullable = false)
+    private LocalDate accrualDate;
+
+    @Column(name = "partition_size", nullable = false)
+    private long partitionSize;
+
+    @NotNull
+    @Column(name = "started_at", nullable = false)
+    private Date startedAt = new Date();
+
+    public InterestAccrualRun(LocalDate accrualDate, long partitionSize) {
+        this.accrualDate = accrualDate;
+        this.partitionSize = partitionSize;
+    }
+
+}
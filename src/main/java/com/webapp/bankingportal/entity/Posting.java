@@ -0,0 +1,91 @@
+package com.webapp.bankingportal.entity;
+
+import java.util.Date;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One leg of a money movement as seen from a single account. The primary key
+ * is (account_id, seq), so an account's history is one clustered index range
+ * scan instead of an OR across the source and target columns of
+ * {@link Transaction}.
+ *
+ * Postings are immutable and always inserted, never merged. The secondary
+ * indexes back the supported search filters and InnoDB appends seq to each of
+ * them, so a search on an equal type or counterparty is still read in seq
+ * order. A date range on idx_posting_account_date is read in date order
+ * instead and needs a filesort to return the page by seq.
+ */
+@Entity
+@Table(name = "posting", indexes = {
+        @Index(name = "idx_posting_account_date", columnList = "account_id, transaction_date"),
+        @Index(name = "idx_posting_account_type", columnList = "account_id, transaction_type"),
+        @Index(name = "idx_posting_account_counterparty", columnList = "account_id, counterparty_account_number")
+})
+@IdClass(PostingId.class)
+@Data
+@NoArgsConstructor
+public class Posting implements Persistable<PostingId> {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Id
+    private long seq;
+
+    @Column(nullable = false)
+    private Long transactionId;
+
+    /** Positive for money coming in, negative for money going out. */
+    private double amount;
+
+    private double balanceAfter;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type")
+    private TransactionType transactionType;
+
+    @Column(name = "counterparty_account_number")
+    private String counterpartyAccountNumber;
+
+    @Column(name = "transaction_date")
+    private Date transactionDate;
+
+    public Posting(Account account, Transaction transaction, double amount, Account counterparty) {
+        this.accountId = account.getId();
+        this.seq = account.getLastPostingSeq();
+        this.transactionId = transaction.getId();
+        this.amount = amount;
+        this.balanceAfter = account.getBalance();
+        this.transactionType = transaction.getTransactionType();
+        this.counterpartyAccountNumber = counterparty != null ? counterparty.getAccountNumber() : null;
+        this.transactionDate = transaction.getTransactionDate();
+    }
+
+    @Override
+    @Transient
+    public PostingId getId() {
+        return new PostingId(accountId, seq);
+    }
+
+    @Override
+    @Transient
+    public boolean isNew() {
+        return true;
+    }
+
+}
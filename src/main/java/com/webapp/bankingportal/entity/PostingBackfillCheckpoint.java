@@ -0,0 +1,42 @@
+package com.webapp.bankingportal.entity;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of the posting backfill. There is a single row, locked by every
+ * batch, so instances that start together take turns instead of writing the
+ * same postings, and a restarted backfill resumes after
+ * {@link #lastTransactionId}.
+ */
+@Entity
+@Table(name = "posting_backfill_checkpoint")
+@NoArgsConstructor
+@Data
+public class PostingBackfillCheckpoint {
+
+    public static final long ID = 1;
+
+    @Id
+    private Long id = ID;
+
+    @Column(name = "last_transaction_id", nullable = false)
+    private long lastTransactionId;
+
+    private long postingsCreated;
+
+    private boolean completed;
+
+    @NotNull
+    @Column(name = "updated_at", nullable = false)
+    private Date updatedAt = new Date();
+
+}
@@ -0,0 +1,17 @@
+package com.webapp.bankingportal.entity;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostingId implements Serializable {
+
+    private Long accountId;
+    private long seq;
+
+}
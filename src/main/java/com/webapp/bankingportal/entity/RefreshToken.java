@@ -9,23 +9,36 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * Long-lived, single-use token exchanged for a new access token. Access
+ * tokens themselves are never persisted, and refresh tokens only as their
+ * SHA-256 digest. A rotated token is kept, revoked, until it expires, so a
+ * replay of it can be told apart from an unknown token.
+ */
 @Entity
+@Table(name = "refresh_token")
 @NoArgsConstructor
 @Data
-public class Token {
+public class RefreshToken {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @NotEmpty
-    @Column(unique = true)
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    // Only known to the instance that issued the token
+    @Transient
     private String token;
 
     @NotNull
@@ -34,15 +47,26 @@ public class Token {
     @NotNull
     private Date expiryAt;
 
+    private Date revokedAt;
+
     @NotNull
     @ManyToOne
     @JoinColumn(name = "account_id")
     private Account account;
 
-    public Token(String token, Date expiryAt, Account account) {
+    public RefreshToken(String token, String tokenHash, Date expiryAt, Account account) {
         this.token = token;
+        this.tokenHash = tokenHash;
         this.expiryAt = expiryAt;
         this.account = account;
     }
 
+    public boolean isExpired() {
+        return expiryAt.before(new Date());
+    }
+
+    public boolean isRevoked() {
+        return revokedAt != null;
+    }
+
 }
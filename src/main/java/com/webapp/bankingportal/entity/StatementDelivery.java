@@ -0,0 +1,67 @@
+package com.webapp.bankingportal.entity;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Claims, then marks as sent, the monthly statement of an account. Every
+ * instance runs the statement job; the unique constraint lets only one of them
+ * insert the PENDING claim and send the statement. The row becomes SENT once
+ * the mail has been handed to the mail server and is deleted if sending
+ * fails, so a restarted run only sends the statements that are still missing.
+ * Claims left PENDING by a crashed instance can be taken over once stale.
+ */
+@Entity
+@Table(name = "statement_delivery", uniqueConstraints = @UniqueConstraint(
+        name = "uk_statement_delivery", columnNames = { "statement_month", "account_id" }))
+@NoArgsConstructor
+@Data
+public class StatementDelivery {
+
+    public enum Status {
+        PENDING, SENT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Statement period formatted as yyyy-MM. */
+    @NotEmpty
+    @Column(name = "statement_month", nullable = false, length = 7)
+    private String statementMonth;
+
+    @NotNull
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    /** Null on rows written before statements were claimed, which were all sent. */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 7)
+    private Status status = Status.PENDING;
+
+    /** When the statement was claimed while PENDING, when it was sent once SENT. */
+    @NotNull
+    @Column(name = "delivered_at", nullable = false)
+    private Date deliveredAt = new Date();
+
+    public StatementDelivery(String statementMonth, Long accountId) {
+        this.statementMonth = statementMonth;
+        this.accountId = accountId;
+    }
+
+}
@@ -1,20 +1,49 @@
 package com.webapp.bankingportal.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 @Entity
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = User.EMAIL_COLUMN),
+        @UniqueConstraint(name = User.PHONE_NUMBER_CONSTRAINT, columnNames = User.PHONE_NUMBER_COLUMN) })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+@NaturalIdCache(region = User.NATURAL_ID_CACHE_REGION)
+@NamedEntityGraph(name = User.WITH_ACCOUNT, attributeNodes = @NamedAttributeNode("account"))
 @Data
 public class User {
+
+    // Registration relies on these constraints instead of checking for duplicates first
+    public static final String EMAIL_CONSTRAINT = "uk_user_email";
+    public static final String PHONE_NUMBER_CONSTRAINT = "uk_user_phone_number";
+    public static final String EMAIL_COLUMN = "email";
+    public static final String PHONE_NUMBER_COLUMN = "phone_number";
+
+    public static final String CACHE_REGION = "user";
+    public static final String NATURAL_ID_CACHE_REGION = "user-natural-id";
+    public static final String WITH_ACCOUNT = "User.withAccount";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -27,21 +56,25 @@ public class User {
 
     @Email
     @NotEmpty
-    @Column(unique = true)
+    @NaturalId(mutable = true)
+    @Column(name = EMAIL_COLUMN)
     private String email;
 
     @NotEmpty
     private String countryCode;
 
     @NotEmpty
-    @Column(unique = true)
+    @Column(name = PHONE_NUMBER_COLUMN)
     private String phoneNumber;
 
     @NotEmpty
     private String address;
 
-    // Establishing a one-to-one relationship with the account
-    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL)
+    // Establishing a one-to-one relationship with the account. Lazy on this
+    // inverse side only works because the entities are bytecode enhanced.
+    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Account account;
 
 }
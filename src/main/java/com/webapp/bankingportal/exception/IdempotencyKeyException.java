@@ -0,0 +1,9 @@
+package com.webapp.bankingportal.exception;
+
+public class IdempotencyKeyException extends RuntimeException {
+
+    public IdempotencyKeyException(String message) {
+        super(message);
+    }
+
+}
@@ -2,14 +2,14 @@ package com.webapp.bankingportal.mapper;
 
 import org.springframework.stereotype.Component;
 
+import com.webapp.bankingportal.dto.PostingSummary;
 import com.webapp.bankingportal.dto.TransactionDTO;
-import com.webapp.bankingportal.entity.Transaction;
 
 @Component
 public class TransactionMapper {
 
-    public TransactionDTO toDto(Transaction transaction) {
-        return new TransactionDTO(transaction);
+    public TransactionDTO toDto(PostingSummary posting, String accountNumber) {
+        return new TransactionDTO(posting, accountNumber);
     }
 
 }
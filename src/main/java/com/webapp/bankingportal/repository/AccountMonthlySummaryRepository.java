@@ -0,0 +1,51 @@
+package com.webapp.bankingportal.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.webapp.bankingportal.entity.AccountMonthlySummary;
+import com.webapp.bankingportal.entity.AccountMonthlySummaryId;
+
+@Repository
+public interface AccountMonthlySummaryRepository extends JpaRepository<AccountMonthlySummary, AccountMonthlySummaryId>,
+        AccountMonthlySummaryRepositoryCustom {
+
+    @Query("SELECT s FROM AccountMonthlySummary s WHERE s.accountId = :accountId AND s.month >= :fromMonth "
+            + "ORDER BY s.month DESC")
+    List<AccountMonthlySummary> findRecent(@Param("accountId") Long accountId, @Param("fromMonth") LocalDate fromMonth);
+
+    @Modifying
+    @Query(value = "DELETE FROM account_monthly_summary WHERE account_id > :afterId AND account_id <= :toId",
+            nativeQuery = true)
+    int deleteAccountRange(@Param("afterId") long afterId, @Param("toId") long toId);
+
+    // Recomputes the summaries of an account id range from its postings. transaction_date holds wall clock
+    // times of storageZone; they are bucketed by their month in summaryZone. CONVERT_TZ only runs when the
+    // zones differ, as named zones need the MySQL time zone tables.
+    @Modifying
+    @Query(value = "INSERT INTO account_monthly_summary (account_id, month, deposit_total, deposit_count, "
+            + "withdrawal_total, withdrawal_count, transfer_in_total, transfer_in_count, transfer_out_total, "
+            + "transfer_out_count, credit_total, credit_count) "
+            + "SELECT account_id, CAST(DATE_FORMAT(CASE WHEN :storageZone = :summaryZone THEN transaction_date "
+            + "ELSE CONVERT_TZ(transaction_date, :storageZone, :summaryZone) END, '%Y-%m-01') AS DATE) AS summary_month, "
+            + "SUM(CASE WHEN transaction_type = 'CASH_DEPOSIT' THEN amount ELSE 0 END), "
+            + "SUM(transaction_type = 'CASH_DEPOSIT'), "
+            + "SUM(CASE WHEN transaction_type = 'CASH_WITHDRAWAL' THEN -amount ELSE 0 END), "
+            + "SUM(transaction_type = 'CASH_WITHDRAWAL'), "
+            + "SUM(CASE WHEN transaction_type = 'CASH_TRANSFER' AND amount >= 0 THEN amount ELSE 0 END), "
+            + "SUM(transaction_type = 'CASH_TRANSFER' AND amount >= 0), "
+            + "SUM(CASE WHEN transaction_type = 'CASH_TRANSFER' AND amount < 0 THEN -amount ELSE 0 END), "
+            + "SUM(transaction_type = 'CASH_TRANSFER' AND amount < 0), "
+            + "SUM(CASE WHEN transaction_type = 'CASH_CREDIT' THEN amount ELSE 0 END), "
+            + "SUM(transaction_type = 'CASH_CREDIT') "
+            + "FROM posting WHERE account_id > :afterId AND account_id <= :toId "
+            + "GROUP BY account_id, summary_month", nativeQuery = true)
+    int insertAccountRangeFromPostings(@Param("afterId") long afterId, @Param("toId") long toId,
+            @Param("storageZone") String storageZone, @Param("summaryZone") String summaryZone);
+}
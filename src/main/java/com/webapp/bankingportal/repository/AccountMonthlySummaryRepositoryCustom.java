@@ -0,0 +1,10 @@
+package com.webapp.bankingportal.repository;
+
+import java.time.LocalDate;
+
+import com.webapp.bankingportal.entity.AccountMonthlySummary.Movement;
+
+public interface AccountMonthlySummaryRepositoryCustom {
+
+    void addMovement(Long accountId, LocalDate month, Movement movement, double amount);
+}
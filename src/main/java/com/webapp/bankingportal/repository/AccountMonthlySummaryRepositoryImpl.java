@@ -0,0 +1,28 @@
+package com.webapp.bankingportal.repository;
+
+import java.time.LocalDate;
+
+import com.webapp.bankingportal.entity.AccountMonthlySummary.Movement;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Adds a movement to a monthly summary with a single upsert, so concurrent
+ * movements of the same account never lose an update and the first movement
+ * of a month needs no separate existence check.
+ */
+public class AccountMonthlySummaryRepositoryImpl implements AccountMonthlySummaryRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void addMovement(Long accountId, LocalDate month, Movement movement, double amount) {
+        entityManager.createNativeQuery(movement.upsertSql())
+                .setParameter(1, accountId)
+                .setParameter(2, month)
+                .setParameter(3, amount)
+                .executeUpdate();
+    }
+}
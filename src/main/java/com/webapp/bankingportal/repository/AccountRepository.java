@@ -1,12 +1,53 @@
 package com.webapp.bankingportal.repository;
 
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.webapp.bankingportal.dto.StatementRecipient;
 import com.webapp.bankingportal.entity.Account;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
-public interface AccountRepository extends JpaRepository<Account, Long> {
+public interface AccountRepository extends JpaRepository<Account, Long>, AccountRepositoryCustom {
+
+    @Query("SELECT MAX(a.id) FROM Account a")
+    Long findMaxId();
+
+    @Query("SELECT a.id FROM Account a WHERE a.accountNumber = :accountNumber")
+    Long findIdByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    // Read from the database, never from the per-instance second-level cache
+    @Query("SELECT a.revision FROM Account a WHERE a.id = :id")
+    Long findRevisionById(@Param("id") Long id);
+
+    // SELECT ... FOR UPDATE for money movements. Being a query, it always reads
+    // the row from the database rather than the second-level cache, but it
+    // returns an instance already in the persistence context as it is, so it
+    // has to be the first load of the account in the transaction.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Account a SET a.lastPostingSeq = :seq WHERE a.id = :id")
+    int updateLastPostingSeq(@Param("id") Long id, @Param("seq") long seq);
 
-    Account findByAccountNumber(String accountNumber);
+    // Keyset page of accounts whose statement for the month is neither sent nor freshly claimed
+    @Query("SELECT new com.webapp.bankingportal.dto.StatementRecipient(a.id, a.accountNumber, u.name, u.email) "
+            + "FROM Account a JOIN a.user u WHERE a.id > :afterId AND NOT EXISTS ("
+            + "SELECT 1 FROM StatementDelivery d WHERE d.accountId = a.id AND d.statementMonth = :month "
+            + "AND (d.status IS NULL OR d.status = 'SENT' OR d.deliveredAt >= :staleBefore)) "
+            + "ORDER BY a.id")
+    List<StatementRecipient> findStatementRecipients(@Param("month") String month,
+            @Param("staleBefore") Date staleBefore, @Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,12 @@
+package com.webapp.bankingportal.repository;
+
+import com.webapp.bankingportal.entity.Account;
+
+public interface AccountRepositoryCustom {
+
+    Account findByAccountNumber(String accountNumber);
+
+    Account findByAccountNumberOutsideTransaction(String accountNumber);
+
+    Account findCurrentByAccountNumber(String accountNumber);
+}
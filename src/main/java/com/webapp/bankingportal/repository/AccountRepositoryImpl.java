@@ -0,0 +1,77 @@
+package com.webapp.bankingportal.repository;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import com.webapp.bankingportal.entity.Account;
+import com.webapp.bankingportal.entity.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnit;
+
+import lombok.val;
+
+/**
+ * Loads accounts by their natural id, so repeated lookups of the same account
+ * number are served from the persistence context or the second-level cache
+ * instead of a query.
+ */
+public class AccountRepositoryImpl implements AccountRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Account findByAccountNumber(String accountNumber) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Account.class)
+                .load(accountNumber);
+    }
+
+    /**
+     * Loads the account in a short-lived session of its own, for callers that
+     * deliberately run without a transaction. A second-level cache hit returns
+     * without borrowing a connection. The account comes back detached, so its
+     * lazy associations cannot be loaded.
+     */
+    @Override
+    public Account findByAccountNumberOutsideTransaction(String accountNumber) {
+        try (val session = entityManagerFactory.unwrap(SessionFactory.class).openSession()) {
+            return session.bySimpleNaturalId(Account.class).load(accountNumber);
+        }
+    }
+
+    /**
+     * Like {@link #findByAccountNumber}, but checks the revision of a cached
+     * account against the database. The second-level cache is per instance,
+     * so an account changed through another instance may be stale in it; a
+     * stale account and its user are evicted from the cache and refreshed.
+     */
+    @Override
+    public Account findCurrentByAccountNumber(String accountNumber) {
+        val session = entityManager.unwrap(Session.class);
+        val account = session.bySimpleNaturalId(Account.class).load(accountNumber);
+        if (account == null) {
+            return null;
+        }
+
+        val revision = session.createQuery("SELECT a.revision FROM Account a WHERE a.id = :id", Long.class)
+                .setParameter("id", account.getId())
+                .getSingleResult();
+        if (revision != account.getRevision()) {
+            val user = account.getUser();
+            val cache = session.getSessionFactory().getCache();
+            cache.evictEntityData(Account.class, account.getId());
+            cache.evictEntityData(User.class, user.getId());
+            session.refresh(account);
+            session.refresh(user);
+        }
+
+        return account;
+    }
+}
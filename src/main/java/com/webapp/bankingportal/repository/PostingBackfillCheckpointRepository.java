@@ -0,0 +1,21 @@
+package com.webapp.bankingportal.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.webapp.bankingportal.entity.PostingBackfillCheckpoint;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface PostingBackfillCheckpointRepository extends JpaRepository<PostingBackfillCheckpoint, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM PostingBackfillCheckpoint c WHERE c.id = :id")
+    Optional<PostingBackfillCheckpoint> findByIdForUpdate(@Param("id") Long id);
+}
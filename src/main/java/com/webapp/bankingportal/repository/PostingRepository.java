@@ -0,0 +1,50 @@
+package com.webapp.bankingportal.repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.webapp.bankingportal.dto.PostingSummary;
+import com.webapp.bankingportal.entity.Posting;
+import com.webapp.bankingportal.entity.PostingId;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface PostingRepository extends JpaRepository<Posting, PostingId>, PostingRepositoryCustom {
+
+    @Query("SELECT new com.webapp.bankingportal.dto.PostingSummary(p.seq, p.transactionId, p.amount, "
+            + "p.transactionType, p.transactionDate, p.counterpartyAccountNumber) FROM Posting p "
+            + "WHERE p.accountId = (SELECT a.id FROM Account a WHERE a.accountNumber = :accountNumber) "
+            + "ORDER BY p.seq DESC")
+    List<PostingSummary> findHistoryByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    List<Posting> findByAccountIdOrderBySeqDesc(Long accountId, Pageable pageable);
+
+    @Query("FROM Posting p WHERE p.accountId = :accountId AND p.transactionDate < :before ORDER BY p.seq DESC")
+    List<Posting> findLatestBefore(@Param("accountId") Long accountId, @Param("before") Date before,
+            Pageable pageable);
+
+    // Postings sequenced before a back-dated one, such as interest credited the morning after
+    @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Posting p WHERE p.accountId = :accountId "
+            + "AND p.transactionDate >= :from AND p.seq < :seq")
+    double sumAmountsFromBeforeSeq(@Param("accountId") Long accountId, @Param("from") Date from,
+            @Param("seq") long seq);
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT new com.webapp.bankingportal.dto.PostingSummary(p.seq, p.transactionId, p.amount, "
+            + "p.transactionType, p.transactionDate, p.counterpartyAccountNumber) FROM Posting p "
+            + "WHERE p.accountId = :accountId AND p.transactionDate >= :from AND p.transactionDate < :to "
+            + "ORDER BY p.seq")
+    Stream<PostingSummary> streamStatementLines(@Param("accountId") Long accountId, @Param("from") Date from,
+            @Param("to") Date to);
+}
@@ -0,0 +1,14 @@
+package com.webapp.bankingportal.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.webapp.bankingportal.dto.PostingSummary;
+import com.webapp.bankingportal.entity.Posting;
+
+public interface PostingRepositoryCustom {
+
+    List<PostingSummary> findSummaries(Specification<Posting> specification, Sort.Direction direction, int limit);
+}
@@ -0,0 +1,44 @@
+package com.webapp.bankingportal.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.webapp.bankingportal.dto.PostingSummary;
+import com.webapp.bankingportal.entity.Posting;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import lombok.val;
+
+/**
+ * Runs {@link PostingSpecifications} searches as a projection onto
+ * {@link PostingSummary}, ordered by posting sequence.
+ */
+public class PostingRepositoryImpl implements PostingRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PostingSummary> findSummaries(Specification<Posting> specification, Sort.Direction direction,
+            int limit) {
+        val cb = entityManager.getCriteriaBuilder();
+        val query = cb.createQuery(PostingSummary.class);
+        val root = query.from(Posting.class);
+
+        query.select(cb.construct(PostingSummary.class,
+                root.get("seq"),
+                root.get("transactionId"),
+                root.get("amount"),
+                root.get("transactionType"),
+                root.get("transactionDate"),
+                root.get("counterpartyAccountNumber")));
+        query.where(specification.toPredicate(root, query, cb));
+        query.orderBy(direction.isDescending() ? cb.desc(root.get("seq")) : cb.asc(root.get("seq")));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,59 @@
+package com.webapp.bankingportal.repository;
+
+import java.util.Date;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.webapp.bankingportal.entity.Account;
+import com.webapp.bankingportal.entity.Posting;
+import com.webapp.bankingportal.entity.TransactionType;
+
+import lombok.val;
+
+public final class PostingSpecifications {
+
+    private PostingSpecifications() {
+    }
+
+    public static Specification<Posting> forAccount(String accountNumber) {
+        return (root, query, cb) -> {
+            val accountId = query.subquery(Long.class);
+            val account = accountId.from(Account.class);
+            accountId.select(account.get("id")).where(cb.equal(account.get("accountNumber"), accountNumber));
+            return cb.equal(root.get("accountId"), accountId);
+        };
+    }
+
+    public static Specification<Posting> after(Date fromDate) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("transactionDate"), fromDate);
+    }
+
+    public static Specification<Posting> before(Date toDate) {
+        return (root, query, cb) -> cb.lessThan(root.get("transactionDate"), toDate);
+    }
+
+    public static Specification<Posting> ofType(TransactionType type) {
+        return (root, query, cb) -> cb.equal(root.get("transactionType"), type);
+    }
+
+    public static Specification<Posting> withCounterparty(String accountNumber) {
+        return (root, query, cb) -> cb.equal(root.get("counterpartyAccountNumber"), accountNumber);
+    }
+
+    public static Specification<Posting> amountAtLeast(double amount) {
+        return (root, query, cb) -> cb.ge(cb.abs(root.<Double>get("amount")), amount);
+    }
+
+    public static Specification<Posting> amountAtMost(double amount) {
+        return (root, query, cb) -> cb.le(cb.abs(root.<Double>get("amount")), amount);
+    }
+
+    public static Specification<Posting> seqBefore(long seq) {
+        return (root, query, cb) -> cb.lessThan(root.get("seq"), seq);
+    }
+
+    public static Specification<Posting> seqAfter(long seq) {
+        return (root, query, cb) -> cb.greaterThan(root.get("seq"), seq);
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.webapp.bankingportal.repository;
+
+import java.util.Date;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.webapp.bankingportal.entity.RefreshToken;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    RefreshToken findByTokenHash(String tokenHash);
+
+    // Compare-and-set, so of two concurrent rotations of a token only one succeeds
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now WHERE r.id = :id AND r.revokedAt IS NULL")
+    int revoke(@Param("id") Long id, @Param("now") Date now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.account IN "
+            + "(SELECT a FROM Account a WHERE a.accountNumber = :accountNumber)")
+    int deleteAllByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiryAt < :now")
+    int deleteAllExpiredBefore(@Param("now") Date now);
+}
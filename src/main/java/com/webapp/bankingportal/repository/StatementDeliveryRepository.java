@@ -0,0 +1,32 @@
+package com.webapp.bankingportal.repository;
+
+import java.util.Date;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.webapp.bankingportal.entity.StatementDelivery;
+
+@Repository
+public interface StatementDeliveryRepository extends JpaRepository<StatementDelivery, Long> {
+
+    // Takes over a claim whose instance stopped before sending or releasing it
+    @Modifying
+    @Query("UPDATE StatementDelivery d SET d.deliveredAt = :now WHERE d.statementMonth = :month "
+            + "AND d.accountId = :accountId AND d.status = 'PENDING' AND d.deliveredAt < :staleBefore")
+    int reclaimStale(@Param("month") String month, @Param("accountId") Long accountId, @Param("now") Date now,
+            @Param("staleBefore") Date staleBefore);
+
+    @Modifying
+    @Query("UPDATE StatementDelivery d SET d.status = 'SENT', d.deliveredAt = :now "
+            + "WHERE d.statementMonth = :month AND d.accountId = :accountId AND d.status = 'PENDING'")
+    int markSent(@Param("month") String month, @Param("accountId") Long accountId, @Param("now") Date now);
+
+    @Modifying
+    @Query("DELETE FROM StatementDelivery d WHERE d.statementMonth = :month AND d.accountId = :accountId "
+            + "AND d.status = 'PENDING'")
+    int releaseClaim(@Param("month") String month, @Param("accountId") Long accountId);
+}
@@ -1,17 +0,0 @@
-package com.webapp.bankingportal.repository;
-
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-
-import com.webapp.bankingportal.entity.Account;
-import com.webapp.bankingportal.entity.Token;
-
-@Repository
-public interface TokenRepository extends JpaRepository<Token, Long> {
-
-    Token findByToken(String token);
-
-    Token[] findAllByAccount(Account account);
-
-    void deleteByToken(String token);
-}
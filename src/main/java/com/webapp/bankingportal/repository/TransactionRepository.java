@@ -2,6 +2,7 @@ package com.webapp.bankingportal.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,5 +12,5 @@ import com.webapp.bankingportal.entity.Transaction;
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     // Add any custom query methods here, if needed
 	
-    List<Transaction> findBySourceAccount_AccountNumberOrTargetAccount_AccountNumber(String sourceAccountNumber, String targetAccountNumber);
+    List<Transaction> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
@@ -1,18 +1,51 @@
 package com.webapp.bankingportal.repository;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.webapp.bankingportal.dto.UserIdentifiers;
 import com.webapp.bankingportal.entity.User;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+
+    // Lookups of users whose account is needed too, fetched in the same query.
+    // The natural-id lookups in UserRepositoryCustom leave the account unloaded.
+
+    @EntityGraph(User.WITH_ACCOUNT)
+    Optional<User> findWithAccountById(Long id);
+
+    @EntityGraph(User.WITH_ACCOUNT)
+    Optional<User> findWithAccountByEmail(String email);
+
+    @EntityGraph(User.WITH_ACCOUNT)
+    Optional<User> findWithAccountByPhoneNumber(String phoneNumber);
+
+    @EntityGraph(User.WITH_ACCOUNT)
+    Optional<User> findWithAccountByAccountAccountNumber(String accountNumber);
 
-    Optional<User> findByEmail(String email);
+    boolean existsByPhoneNumber(String phoneNumber);
 
-    Optional<User> findByPhoneNumber(String phoneNumber);
+    // Compare-and-set, so a password changed since the old hash was read is not overwritten
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :oldPassword")
+    int updatePasswordIfUnchanged(@Param("id") Long id, @Param("oldPassword") String oldPassword,
+            @Param("newPassword") String newPassword);
 
-    Optional<User> findByAccountAccountNumber(String accountNumber);
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT new com.webapp.bankingportal.dto.UserIdentifiers(u.email, u.phoneNumber, a.accountNumber) "
+            + "FROM User u LEFT JOIN u.account a")
+    Stream<UserIdentifiers> streamAllIdentifiers();
 }
@@ -0,0 +1,19 @@
+package com.webapp.bankingportal.repository;
+
+import java.util.Map;
+import java.util.Optional;
+
+import com.webapp.bankingportal.entity.User;
+
+public interface UserRepositoryCustom {
+
+    Optional<User> findByEmail(String email);
+
+    Optional<User> findByAccountAccountNumber(String accountNumber);
+
+    /**
+     * Returns the single-column unique indexes of the user and account tables
+     * as lower-case index name to lower-case column name.
+     */
+    Map<String, String> findUniqueKeyColumns();
+}
@@ -0,0 +1,74 @@
+package com.webapp.bankingportal.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import org.hibernate.Session;
+
+import com.webapp.bankingportal.entity.Account;
+import com.webapp.bankingportal.entity.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import lombok.val;
+
+/**
+ * Natural-id lookups for users: by email directly, and by account number
+ * through the account's natural id and its user reference. Both are served
+ * from the second-level cache when warm and leave {@code User.account} lazy;
+ * callers that need the account use the {@code findWithAccount} methods.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+
+    @Override
+    public Optional<User> findByAccountAccountNumber(String accountNumber) {
+        val account = entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Account.class)
+                .loadOptional(accountNumber);
+        return account.map(Account::getUser);
+    }
+
+    @Override
+    public Map<String, String> findUniqueKeyColumns() {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            val metaData = connection.getMetaData();
+            val columnsByIndex = new HashMap<String, List<String>>();
+            for (val table : List.of("user", "account")) {
+                val tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+                try (val indexes = metaData.getIndexInfo(connection.getCatalog(), null, tableName, true, true)) {
+                    while (indexes.next()) {
+                        val index = indexes.getString("INDEX_NAME");
+                        val column = indexes.getString("COLUMN_NAME");
+                        if (index != null && column != null) {
+                            columnsByIndex.computeIfAbsent(index.toLowerCase(Locale.ROOT), name -> new ArrayList<>())
+                                    .add(column.toLowerCase(Locale.ROOT));
+                        }
+                    }
+                }
+            }
+
+            val uniqueKeyColumns = new HashMap<String, String>();
+            columnsByIndex.forEach((index, columns) -> {
+                if (columns.size() == 1) {
+                    uniqueKeyColumns.put(index, columns.get(0));
+                }
+            });
+            return uniqueKeyColumns;
+        });
+    }
+}
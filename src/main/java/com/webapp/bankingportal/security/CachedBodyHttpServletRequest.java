@@ -0,0 +1,89 @@
+package com.webapp.bankingportal.security;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import lombok.Getter;
+import lombok.val;
+
+/**
+ * Request wrapper that reads at most {@code limit} bytes of the body up front
+ * so a filter can inspect it, and replays those bytes followed by the rest of
+ * the original stream to the next handler.
+ */
+public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
+
+    @Getter
+    private final byte[] cachedBody;
+
+    /** Whether {@link #cachedBody} holds the complete request body. */
+    @Getter
+    private final boolean complete;
+
+    private final InputStream remainder;
+
+    public CachedBodyHttpServletRequest(HttpServletRequest request, int limit) throws IOException {
+        super(request);
+        this.remainder = request.getInputStream();
+        this.cachedBody = remainder.readNBytes(limit + 1);
+        this.complete = cachedBody.length <= limit;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        val stream = new SequenceInputStream(new ByteArrayInputStream(cachedBody), remainder);
+
+        return new ServletInputStream() {
+
+            private boolean finished = false;
+
+            @Override
+            public int read() throws IOException {
+                val b = stream.read();
+                finished = b == -1;
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                val count = stream.read(buffer, offset, length);
+                finished = count == -1;
+                return count;
+            }
+
+            @Override
+            public boolean isFinished() {
+                return finished;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        val encoding = getCharacterEncoding();
+        val charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+
+}
@@ -1,11 +1,12 @@
 package com.webapp.bankingportal.security;
 
+import static org.springframework.security.core.userdetails.User.withUsername;
+
 import java.io.IOException;
 
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -27,12 +28,14 @@ import lombok.val;
  * This filter intercepts incoming requests to authenticate users based on JWT
  * tokens. It extends OncePerRequestFilter to ensure it's executed once per
  * request.
+ *
+ * Access tokens are short-lived and verified by signature alone, so the
+ * principal is built from the token subject without touching the database.
  */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final UserDetailsService userDetailsService;
     private final TokenService tokenService;
 
     /**
@@ -86,7 +89,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        val userDetails = userDetailsService.loadUserByUsername(username);
+        val userDetails = withUsername(username).password("").build();
         val authToken = new UsernamePasswordAuthenticationToken(
                 userDetails, null, userDetails.getAuthorities());
 
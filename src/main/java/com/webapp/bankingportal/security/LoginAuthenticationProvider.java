@@ -0,0 +1,67 @@
+package com.webapp.bankingportal.security;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.webapp.bankingportal.service.UserService;
+import com.webapp.bankingportal.util.ApiMessages;
+
+import lombok.val;
+
+/**
+ * Authenticates a {@link LoginAuthenticationToken}. The user and its account
+ * are resolved once through {@link UserService#getUserByIdentifier} and the
+ * password is checked once against the loaded hash; the authenticated token
+ * carries that user, so issuing tokens afterwards needs no further lookup.
+ *
+ * Unknown identifiers surface as the {@code UserInvalidException} thrown by
+ * the lookup, as they did before logins went through this provider.
+ *
+ * A hash written with another algorithm or a lower work factor than the
+ * current one is replaced while the raw password is at hand.
+ */
+@Component
+public class LoginAuthenticationProvider implements AuthenticationProvider {
+
+    private final UserService userService;
+    private final PasswordEncoder passwordEncoder;
+
+    // UserService uses the AuthenticationManager built from this provider
+    public LoginAuthenticationProvider(@Lazy UserService userService, PasswordEncoder passwordEncoder) {
+        this.userService = userService;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        val login = (LoginAuthenticationToken) authentication;
+        val password = login.getCredentials();
+        if (password == null || password.isEmpty()) {
+            throw new BadCredentialsException(ApiMessages.BAD_CREDENTIALS_ERROR.getMessage());
+        }
+
+        val user = userService.getUserByIdentifier((String) login.getPrincipal());
+        if (!passwordEncoder.matches(password, user.getPassword())) {
+            throw new BadCredentialsException(ApiMessages.BAD_CREDENTIALS_ERROR.getMessage());
+        }
+
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            userService.rehashPassword(user, password);
+        }
+
+        val result = LoginAuthenticationToken.authenticated(user);
+        result.setDetails(login.getDetails());
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return LoginAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.webapp.bankingportal.security;
+
+import java.util.List;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+
+import com.webapp.bankingportal.entity.User;
+
+/**
+ * Login attempt with an email, account number or phone number and a
+ * password. Once authenticated, the principal is the {@link User} that was
+ * loaded to check the password, with its account, so callers can issue tokens
+ * without loading it again.
+ *
+ * Deliberately not a UsernamePasswordAuthenticationToken, so no other
+ * provider retries a failed login with the identifier as username.
+ */
+public class LoginAuthenticationToken extends AbstractAuthenticationToken {
+
+    private final Object principal;
+    private String password;
+
+    private LoginAuthenticationToken(Object principal, String password, boolean authenticated) {
+        super(List.of());
+        this.principal = principal;
+        this.password = password;
+        super.setAuthenticated(authenticated);
+    }
+
+    public static LoginAuthenticationToken unauthenticated(String identifier, String password) {
+        return new LoginAuthenticationToken(identifier, password, false);
+    }
+
+    public static LoginAuthenticationToken authenticated(User user) {
+        return new LoginAuthenticationToken(user, null, true);
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public String getCredentials() {
+        return password;
+    }
+
+    public User getUser() {
+        return (User) principal;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (authenticated) {
+            throw new IllegalArgumentException("Use LoginAuthenticationToken.authenticated(User) instead");
+        }
+
+        super.setAuthenticated(false);
+    }
+
+    @Override
+    public void eraseCredentials() {
+        super.eraseCredentials();
+        password = null;
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.webapp.bankingportal.security;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.webapp.bankingportal.config.PasswordHashingProperties;
+import com.webapp.bankingportal.config.PasswordHashingProperties.Algorithm;
+
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+/**
+ * Picks the work factor of the configured hashing algorithm by timing hashes
+ * on this host. BCrypt doubles its cost per strength step, so the strength is
+ * raised while the next step still fits the target; PBKDF2 and Argon2 scale
+ * linearly with their iterations, so one measurement is extrapolated and the
+ * result measured again.
+ */
+@RequiredArgsConstructor
+public class PasswordHashCalibrator {
+
+    public record Calibration(Algorithm algorithm, int workFactor, PasswordEncoder encoder, Duration hashTime) {
+    }
+
+    private static final String SAMPLE_PASSWORD = "Calibration-Sample-9";
+    private static final int SAMPLES = 3;
+    private static final int MAX_BCRYPT_STRENGTH = 31;
+    private static final int PBKDF2_ITERATION_STEP = 10_000;
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+
+    private final PasswordHashingProperties properties;
+
+    public Calibration calibrate() {
+        return switch (properties.getAlgorithm()) {
+            case BCRYPT -> calibrateBcrypt();
+            case PBKDF2 -> calibrateLinear(Algorithm.PBKDF2, properties.getPbkdf2().getIterations(),
+                    PBKDF2_ITERATION_STEP, PasswordHashCalibrator::pbkdf2);
+            case ARGON2 -> calibrateLinear(Algorithm.ARGON2, properties.getArgon2().getIterations(), 1,
+                    this::argon2);
+        };
+    }
+
+    public static PasswordEncoder bcrypt(int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    public static PasswordEncoder pbkdf2(int iterations) {
+        return new Pbkdf2IterationsPasswordEncoder(iterations);
+    }
+
+    public PasswordEncoder argon2(int iterations) {
+        val argon2 = properties.getArgon2();
+        return new Argon2PasswordEncoder(SALT_LENGTH, HASH_LENGTH, argon2.getParallelism(), argon2.getMemoryKib(),
+                iterations);
+    }
+
+    private Calibration calibrateBcrypt() {
+        var strength = properties.getBcrypt().getStrength();
+        var encoder = bcrypt(strength);
+        var hashTime = measure(encoder);
+
+        while (properties.isCalibrate() && strength < MAX_BCRYPT_STRENGTH
+                && hashTime.multipliedBy(2).compareTo(properties.getTarget()) <= 0) {
+            strength++;
+            encoder = bcrypt(strength);
+            hashTime = measure(encoder);
+        }
+
+        return new Calibration(Algorithm.BCRYPT, strength, encoder, hashTime);
+    }
+
+    private Calibration calibrateLinear(Algorithm algorithm, int minimum, int step,
+            IntFunction<PasswordEncoder> encoderFactory) {
+        var encoder = encoderFactory.apply(minimum);
+        var hashTime = measure(encoder);
+        if (!properties.isCalibrate() || hashTime.compareTo(properties.getTarget()) >= 0) {
+            return new Calibration(algorithm, minimum, encoder, hashTime);
+        }
+
+        val scaled = (double) minimum * properties.getTarget().toNanos() / Math.max(1, hashTime.toNanos());
+        val workFactor = (int) Math.max(minimum, Math.min(Integer.MAX_VALUE, Math.floor(scaled / step) * step));
+        if (workFactor == minimum) {
+            return new Calibration(algorithm, minimum, encoder, hashTime);
+        }
+
+        encoder = encoderFactory.apply(workFactor);
+        return new Calibration(algorithm, workFactor, encoder, measure(encoder));
+    }
+
+    // Median of a few hashes after one warm-up hash
+    private static Duration measure(PasswordEncoder encoder) {
+        encoder.encode(SAMPLE_PASSWORD);
+        val samples = new long[SAMPLES];
+        for (var i = 0; i < SAMPLES; i++) {
+            val start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            samples[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(samples);
+        return Duration.ofNanos(samples[SAMPLES / 2]);
+    }
+
+}
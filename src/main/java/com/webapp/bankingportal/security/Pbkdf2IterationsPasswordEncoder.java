@@ -0,0 +1,72 @@
+package com.webapp.bankingportal.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm;
+
+import lombok.val;
+
+/**
+ * PBKDF2-HMAC-SHA256 encoder that stores the iteration count in front of
+ * the hash ({@code <iterations>$<salt and hash>}). Spring's encoder leaves it
+ * out, so every stored hash would break as soon as calibration picked a
+ * different count; with it, old hashes still match and are reported for
+ * upgrade.
+ */
+public class Pbkdf2IterationsPasswordEncoder implements PasswordEncoder {
+
+    private static final int SALT_LENGTH = 16;
+    private static final char SEPARATOR = '$';
+
+    private final int iterations;
+
+    // One encoder per iteration count found in stored hashes; there are only a few
+    private final ConcurrentMap<Integer, Pbkdf2PasswordEncoder> encoders = new ConcurrentHashMap<>();
+
+    public Pbkdf2IterationsPasswordEncoder(int iterations) {
+        this.iterations = iterations;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return iterations + String.valueOf(SEPARATOR) + encoder(iterations).encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        val storedIterations = iterationsOf(encodedPassword);
+        if (storedIterations <= 0) {
+            return false;
+        }
+
+        val hash = encodedPassword.substring(encodedPassword.indexOf(SEPARATOR) + 1);
+        return encoder(storedIterations).matches(rawPassword, hash);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return iterationsOf(encodedPassword) < iterations;
+    }
+
+    private Pbkdf2PasswordEncoder encoder(int iterations) {
+        return encoders.computeIfAbsent(iterations, count -> new Pbkdf2PasswordEncoder("", SALT_LENGTH, count,
+                SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+    }
+
+    private static int iterationsOf(String encodedPassword) {
+        val separator = encodedPassword == null ? -1 : encodedPassword.indexOf(SEPARATOR);
+        if (separator <= 0) {
+            return 0;
+        }
+
+        try {
+            return Integer.parseInt(encodedPassword, 0, separator, 10);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.webapp.bankingportal.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.webapp.bankingportal.config.RateLimitProperties;
+import com.webapp.bankingportal.config.RateLimitProperties.Route;
+import com.webapp.bankingportal.security.RateLimiter.Probe;
+import com.webapp.bankingportal.util.ApiMessages;
+import com.webapp.bankingportal.util.JsonUtil;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+/**
+ * Rate Limit Filter
+ *
+ * Applies token-bucket limits to the configured public routes before any
+ * authentication work is done. Every request is charged against a bucket for
+ * its client IP and, when the body carries one, a bucket for its login
+ * identifier. The client IP is the remote address as resolved by
+ * {@code server.forward-headers-strategy}: behind a proxy it has to be set,
+ * or every client shares the proxy's bucket. The most restrictive bucket is reported through the
+ * {@code RateLimit-*} response headers. Bodies too large to inspect are
+ * rejected on routes with an identifier limit, since they could not be
+ * charged to one.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int MAX_INSPECTED_BODY_BYTES = 8 * 1024;
+
+    private final RateLimitProperties properties;
+    private final JsonUtil jsonUtil;
+    private final RateLimiter rateLimiter;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.isEnabled()
+                || HttpMethod.OPTIONS.matches(request.getMethod())
+                || getRoute(request) == null;
+    }
+
+    /**
+     * Performs the filtering for each request
+     *
+     * @param request     The HTTP request
+     * @param response    The HTTP response
+     * @param filterChain The filter chain
+     *
+     * @throws ServletException If a servlet-specific error occurs
+     * @throws IOException      If an I/O error occurs
+     */
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        val path = getPath(request);
+        val route = getRoute(request);
+        HttpServletRequest forwardedRequest = request;
+        Probe probe = null;
+
+        if (route.getIp() != null) {
+            // Already taken from the forwarded headers when a forward-headers strategy is configured
+            probe = rateLimiter.tryConsume(path + "|ip|" + request.getRemoteAddr(), route.getIp());
+        }
+
+        if ((probe == null || probe.allowed()) && route.getIdentifier() != null) {
+            val cachedRequest = new CachedBodyHttpServletRequest(request, MAX_INSPECTED_BODY_BYTES);
+            forwardedRequest = cachedRequest;
+
+            if (!cachedRequest.isComplete()) {
+                reject(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                        String.format(ApiMessages.REQUEST_BODY_TOO_LARGE_ERROR.getMessage(), MAX_INSPECTED_BODY_BYTES));
+                return;
+            }
+
+            val identifier = extractIdentifier(cachedRequest);
+            if (identifier != null) {
+                val identifierProbe = rateLimiter.tryConsume(path + "|id|" + identifier, route.getIdentifier());
+                if (probe == null || !identifierProbe.allowed() || identifierProbe.remaining() < probe.remaining()) {
+                    probe = identifierProbe;
+                }
+            }
+        }
+
+        if (probe == null) {
+            filterChain.doFilter(forwardedRequest, response);
+            return;
+        }
+
+        response.setHeader("RateLimit-Limit", String.valueOf(probe.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(probe.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(probe.resetSeconds()));
+
+        if (!probe.allowed()) {
+            logger.warn("Rate limit exceeded for " + path + " from " + request.getRemoteAddr());
+
+            response.setHeader("Retry-After", String.valueOf(probe.resetSeconds()));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS,
+                    String.format(ApiMessages.RATE_LIMIT_EXCEEDED_ERROR.getMessage(), probe.resetSeconds()));
+            return;
+        }
+
+        filterChain.doFilter(forwardedRequest, response);
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().println(message);
+    }
+
+    private Route getRoute(HttpServletRequest request) {
+        return properties.getRoutes().get(getPath(request));
+    }
+
+    private static String getPath(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private String extractIdentifier(CachedBodyHttpServletRequest request) {
+        try {
+            val identifier = jsonUtil.readTree(request.getCachedBody()).path("identifier");
+            if (!identifier.isTextual() || identifier.asText().isBlank()) {
+                return null;
+            }
+
+            return identifier.asText().trim().toLowerCase(Locale.ROOT);
+
+        } catch (IOException e) {
+            // Malformed bodies are rejected by the controller; only the IP limit applies
+            return null;
+        }
+    }
+
+}
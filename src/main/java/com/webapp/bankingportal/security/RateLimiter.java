@@ -0,0 +1,73 @@
+package com.webapp.bankingportal.security;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.webapp.bankingportal.config.RateLimitProperties;
+import com.webapp.bankingportal.config.RateLimitProperties.Limit;
+
+import lombok.val;
+
+/**
+ * Token buckets keyed by an arbitrary string. Buckets live in a size-bounded
+ * Caffeine cache and each bucket is a single {@link AtomicLong} holding its
+ * theoretical arrival time (GCRA), so consuming a token is one CAS and never
+ * takes a lock.
+ */
+@Component
+public class RateLimiter {
+
+    public record Probe(boolean allowed, int limit, long remaining, long resetSeconds) {
+    }
+
+    private final Cache<String, AtomicLong> buckets;
+
+    public RateLimiter(RateLimitProperties properties) {
+        // A bucket left idle for its longest period is full again and can be dropped
+        val idleTimeout = properties.getRoutes().values().stream()
+                .flatMap(route -> Stream.of(route.getIp(), route.getIdentifier()))
+                .filter(Objects::nonNull)
+                .map(Limit::getPeriod)
+                .max(Duration::compareTo)
+                .orElse(Duration.ofMinutes(1));
+
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    public Probe tryConsume(String key, Limit limit) {
+        val now = System.nanoTime();
+        val period = limit.getPeriod().toNanos();
+        val interval = period / limit.getCapacity();
+        val tolerance = period - interval;
+        val bucket = buckets.get(key, k -> new AtomicLong(now));
+
+        while (true) {
+            val arrival = bucket.get();
+            val base = Math.max(arrival, now);
+
+            if (now < base - tolerance) {
+                return new Probe(false, limit.getCapacity(), 0, toSeconds(base - tolerance - now));
+            }
+
+            val nextArrival = base + interval;
+            if (bucket.compareAndSet(arrival, nextArrival)) {
+                val remaining = (period - (nextArrival - now)) / interval;
+                return new Probe(true, limit.getCapacity(), remaining, toSeconds(nextArrival - now));
+            }
+        }
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+
+}
@@ -1,10 +1,15 @@
 package com.webapp.bankingportal.service;
 
 import java.util.Date;
+import java.util.Objects;
 import java.util.UUID;
 
+import org.hibernate.Hibernate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.webapp.bankingportal.entity.Account;
 import com.webapp.bankingportal.entity.Transaction;
@@ -20,55 +25,116 @@ import com.webapp.bankingportal.repository.AccountRepository;
 import com.webapp.bankingportal.repository.TransactionRepository;
 import com.webapp.bankingportal.util.ApiMessages;
 
-import lombok.RequiredArgsConstructor;
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * PINs and passwords are checked against hashes read in a short read-only
+ * transaction before the write transaction starts, so the deliberately slow
+ * hash comparison holds neither a connection nor a row lock. The write
+ * transaction compares the locked row's hash with the one that was checked
+ * and only hashes again when it changed in between.
+ */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class AccountServiceImpl implements AccountService {
 
     private final AccountRepository accountRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PostingService postingService;
     private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public AccountServiceImpl(AccountRepository accountRepository, PasswordEncoder passwordEncoder,
+            PostingService postingService, TransactionRepository transactionRepository,
+            PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.postingService = postingService;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
 
+    /**
+     * Builds the account for a new user. It is not saved here: it is inserted
+     * together with the user, and a clash on the account number surfaces as a
+     * violation of {@link Account#ACCOUNT_NUMBER_CONSTRAINT}.
+     */
     @Override
-    public Account createAccount(User user) {
+    public Account newAccount(User user) {
         val account = new Account();
-        account.setAccountNumber(generateUniqueAccountNumber());
+        account.setAccountNumber(generateAccountNumber());
         account.setBalance(0.0);
         account.setUser(user);
-        return accountRepository.save(account);
+        return account;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean isPinCreated(String accountNumber) {
+        return getAccount(accountNumber).getPin() != null;
+    }
+
+    private Account getAccount(String accountNumber) {
         val account = accountRepository.findByAccountNumber(accountNumber);
         if (account == null) {
             throw new NotFoundException(ApiMessages.ACCOUNT_NOT_FOUND.getMessage());
         }
 
-        return account.getPin() != null;
+        return account;
     }
 
-    private String generateUniqueAccountNumber() {
-        String accountNumber;
-        do {
-            // Generate a UUID as the account number
-            accountNumber = UUID.randomUUID().toString().replaceAll("-", "").substring(0, 6);
-        } while (accountRepository.findByAccountNumber(accountNumber) != null);
+    /**
+     * Loads the account with its row locked until the end of the transaction.
+     * Money movements read the balance and posting sequence only this way, so
+     * concurrent movements on one account queue up instead of overwriting each
+     * other's balance and reusing a posting sequence number.
+     */
+    private Account lockAccount(String accountNumber) {
+        return lockAccount(requireAccountId(accountNumber));
+    }
 
-        return accountNumber;
+    private Account lockAccount(Long id) {
+        return accountRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new NotFoundException(ApiMessages.ACCOUNT_NOT_FOUND.getMessage()));
     }
 
-    private void validatePin(String accountNumber, String pin) {
-        val account = accountRepository.findByAccountNumber(accountNumber);
-        if (account == null) {
+    private Long requireAccountId(String accountNumber) {
+        val id = accountRepository.findIdByAccountNumber(accountNumber);
+        if (id == null) {
             throw new NotFoundException(ApiMessages.ACCOUNT_NOT_FOUND.getMessage());
         }
 
-        if (account.getPin() == null) {
+        return id;
+    }
+
+    private String generateAccountNumber() {
+        // Generate a UUID as the account number
+        return UUID.randomUUID().toString().replaceAll("-", "").substring(0, 6);
+    }
+
+    /**
+     * Checks the PIN against the hash read in a read-only transaction and
+     * returns that hash for {@link #recheckPin}.
+     */
+    private String verifyPin(String accountNumber, String pin) {
+        val pinHash = readOnlyTransactionTemplate.execute(status -> getAccount(accountNumber).getPin());
+        checkPin(pinHash, pin);
+        return pinHash;
+    }
+
+    // The PIN may have changed since it was verified, or been read from a lagging replica
+    private void recheckPin(Account account, String pin, String verifiedPinHash) {
+        if (!Objects.equals(account.getPin(), verifiedPinHash)) {
+            checkPin(account.getPin(), pin);
+        }
+    }
+
+    private void checkPin(String pinHash, String pin) {
+        if (pinHash == null) {
             throw new UnauthorizedException(ApiMessages.PIN_NOT_CREATED.getMessage());
         }
 
@@ -76,17 +142,21 @@ public class AccountServiceImpl implements AccountService {
             throw new UnauthorizedException(ApiMessages.PIN_EMPTY_ERROR.getMessage());
         }
 
-        if (!passwordEncoder.matches(pin, account.getPin())) {
+        if (!passwordEncoder.matches(pin, pinHash)) {
             throw new UnauthorizedException(ApiMessages.PIN_INVALID_ERROR.getMessage());
         }
     }
 
-    private void validatePassword(String accountNumber, String password) {
-        val account = accountRepository.findByAccountNumber(accountNumber);
-        if (account == null) {
-            throw new NotFoundException(ApiMessages.ACCOUNT_NOT_FOUND.getMessage());
-        }
+    // Detached, with the user loaded for its password hash
+    private Account readAccountWithUser(String accountNumber) {
+        return readOnlyTransactionTemplate.execute(status -> {
+            val account = getAccount(accountNumber);
+            Hibernate.initialize(account.getUser());
+            return account;
+        });
+    }
 
+    private void checkPassword(Account account, String password) {
         if (password == null || password.isEmpty()) {
             throw new UnauthorizedException(ApiMessages.PASSWORD_EMPTY_ERROR.getMessage());
         }
@@ -96,15 +166,7 @@ public class AccountServiceImpl implements AccountService {
         }
     }
 
-    @Override
-    public void createPin(String accountNumber, String password, String pin) {
-        validatePassword(accountNumber, password);
-
-        val account = accountRepository.findByAccountNumber(accountNumber);
-        if (account.getPin() != null) {
-            throw new UnauthorizedException(ApiMessages.PIN_ALREADY_EXISTS.getMessage());
-        }
-
+    private void validateNewPin(String pin) {
         if (pin == null || pin.isEmpty()) {
             throw new InvalidPinException(ApiMessages.PIN_EMPTY_ERROR.getMessage());
         }
@@ -112,30 +174,47 @@ public class AccountServiceImpl implements AccountService {
         if (!pin.matches("[0-9]{4}")) {
             throw new InvalidPinException(ApiMessages.PIN_FORMAT_INVALID_ERROR.getMessage());
         }
-
-        account.setPin(passwordEncoder.encode(pin));
-        accountRepository.save(account);
     }
 
     @Override
-    public void updatePin(String accountNumber, String oldPin, String password, String newPin) {
-        log.info("Updating PIN for account: {}", accountNumber);
+    public void createPin(String accountNumber, String password, String pin) {
+        val account = readAccountWithUser(accountNumber);
+        checkPassword(account, password);
 
-        validatePassword(accountNumber, password);
-        validatePin(accountNumber, oldPin);
+        if (account.getPin() != null) {
+            throw new UnauthorizedException(ApiMessages.PIN_ALREADY_EXISTS.getMessage());
+        }
 
-        val account = accountRepository.findByAccountNumber(accountNumber);
+        validateNewPin(pin);
+        val pinHash = passwordEncoder.encode(pin);
 
-        if (newPin == null || newPin.isEmpty()) {
-            throw new InvalidPinException(ApiMessages.PIN_EMPTY_ERROR.getMessage());
-        }
+        transactionTemplate.executeWithoutResult(status -> {
+            val lockedAccount = lockAccount(account.getId());
+            if (lockedAccount.getPin() != null) {
+                throw new UnauthorizedException(ApiMessages.PIN_ALREADY_EXISTS.getMessage());
+            }
 
-        if (!newPin.matches("[0-9]{4}")) {
-            throw new InvalidPinException(ApiMessages.PIN_FORMAT_INVALID_ERROR.getMessage());
-        }
+            lockedAccount.setPin(pinHash);
+            accountRepository.save(lockedAccount);
+        });
+    }
+
+    @Override
+    public void updatePin(String accountNumber, String oldPin, String password, String newPin) {
+        log.info("Updating PIN for account: {}", accountNumber);
 
-        account.setPin(passwordEncoder.encode(newPin));
-        accountRepository.save(account);
+        val account = readAccountWithUser(accountNumber);
+        checkPassword(account, password);
+        checkPin(account.getPin(), oldPin);
+        validateNewPin(newPin);
+        val pinHash = passwordEncoder.encode(newPin);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            val lockedAccount = lockAccount(account.getId());
+            recheckPin(lockedAccount, oldPin, account.getPin());
+            lockedAccount.setPin(pinHash);
+            accountRepository.save(lockedAccount);
+        });
     }
 
     private void validateAmount(double amount) {
@@ -154,81 +233,104 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public void cashDeposit(String accountNumber, String pin, double amount) {
-        validatePin(accountNumber, pin);
+        val pinHash = verifyPin(accountNumber, pin);
         validateAmount(amount);
 
-        val account = accountRepository.findByAccountNumber(accountNumber);
-        val currentBalance = account.getBalance();
-        val newBalance = currentBalance + amount;
-        account.setBalance(newBalance);
-        accountRepository.save(account);
+        transactionTemplate.executeWithoutResult(status -> {
+            val account = lockAccount(accountNumber);
+            recheckPin(account, pin, pinHash);
+
+            val currentBalance = account.getBalance();
+            val newBalance = currentBalance + amount;
+            account.setBalance(newBalance);
+            accountRepository.save(account);
 
-        val transaction = new Transaction();
-        transaction.setAmount(amount);
-        transaction.setTransactionType(TransactionType.CASH_DEPOSIT);
-        transaction.setTransactionDate(new Date());
-        transaction.setSourceAccount(account);
-        transactionRepository.save(transaction);
+            val transaction = new Transaction();
+            transaction.setAmount(amount);
+            transaction.setTransactionType(TransactionType.CASH_DEPOSIT);
+            transaction.setTransactionDate(new Date());
+            transaction.setSourceAccount(account);
+            transactionRepository.save(transaction);
+
+            postingService.recordPosting(account, transaction, amount, null);
+        });
     }
 
     @Override
     public void cashWithdrawal(String accountNumber, String pin, double amount) {
-        validatePin(accountNumber, pin);
+        val pinHash = verifyPin(accountNumber, pin);
         validateAmount(amount);
 
-        val account = accountRepository.findByAccountNumber(accountNumber);
-        val currentBalance = account.getBalance();
-        if (currentBalance < amount) {
-            throw new InsufficientBalanceException(ApiMessages.BALANCE_INSUFFICIENT_ERROR.getMessage());
-        }
+        transactionTemplate.executeWithoutResult(status -> {
+            val account = lockAccount(accountNumber);
+            recheckPin(account, pin, pinHash);
 
-        val newBalance = currentBalance - amount;
-        account.setBalance(newBalance);
-        accountRepository.save(account);
+            val currentBalance = account.getBalance();
+            if (currentBalance < amount) {
+                throw new InsufficientBalanceException(ApiMessages.BALANCE_INSUFFICIENT_ERROR.getMessage());
+            }
 
-        val transaction = new Transaction();
-        transaction.setAmount(amount);
-        transaction.setTransactionType(TransactionType.CASH_WITHDRAWAL);
-        transaction.setTransactionDate(new Date());
-        transaction.setSourceAccount(account);
-        transactionRepository.save(transaction);
+            val newBalance = currentBalance - amount;
+            account.setBalance(newBalance);
+            accountRepository.save(account);
+
+            val transaction = new Transaction();
+            transaction.setAmount(amount);
+            transaction.setTransactionType(TransactionType.CASH_WITHDRAWAL);
+            transaction.setTransactionDate(new Date());
+            transaction.setSourceAccount(account);
+            transactionRepository.save(transaction);
+
+            postingService.recordPosting(account, transaction, -amount, null);
+        });
     }
 
     @Override
     public void fundTransfer(String sourceAccountNumber, String targetAccountNumber, String pin, double amount) {
-        validatePin(sourceAccountNumber, pin);
+        val pinHash = verifyPin(sourceAccountNumber, pin);
         validateAmount(amount);
 
         if (sourceAccountNumber.equals(targetAccountNumber)) {
             throw new FundTransferException(ApiMessages.CASH_TRANSFER_SAME_ACCOUNT_ERROR.getMessage());
         }
 
-        val targetAccount = accountRepository.findByAccountNumber(targetAccountNumber);
-        if (targetAccount == null) {
-            throw new NotFoundException(ApiMessages.ACCOUNT_NOT_FOUND.getMessage());
-        }
-
-        val sourceAccount = accountRepository.findByAccountNumber(sourceAccountNumber);
-        val sourceBalance = sourceAccount.getBalance();
-        if (sourceBalance < amount) {
-            throw new InsufficientBalanceException(ApiMessages.BALANCE_INSUFFICIENT_ERROR.getMessage());
-        }
-
-        val newSourceBalance = sourceBalance - amount;
-        sourceAccount.setBalance(newSourceBalance);
-        accountRepository.save(sourceAccount);
-
-        val targetBalance = targetAccount.getBalance();
-        val newTargetBalance = targetBalance + amount;
-        targetAccount.setBalance(newTargetBalance);
-        accountRepository.save(targetAccount);
-
-        val transaction = new Transaction();
-        transaction.setAmount(amount);
-        transaction.setTransactionType(TransactionType.CASH_TRANSFER);
-        transaction.setTransactionDate(new Date());
-        transaction.setSourceAccount(sourceAccount);
-        transaction.setTargetAccount(targetAccount);
-        transactionRepository.save(transaction);
+        transactionTemplate.executeWithoutResult(status -> {
+            val sourceId = requireAccountId(sourceAccountNumber);
+            val targetId = requireAccountId(targetAccountNumber);
+
+            // Both rows are locked in ascending id order, so transfers in opposite
+            // directions between the same two accounts cannot deadlock
+            val first = lockAccount(Math.min(sourceId, targetId));
+            val second = lockAccount(Math.max(sourceId, targetId));
+            val sourceAccount = sourceId < targetId ? first : second;
+            val targetAccount = sourceId < targetId ? second : first;
+
+            recheckPin(sourceAccount, pin, pinHash);
+
+            val sourceBalance = sourceAccount.getBalance();
+            if (sourceBalance < amount) {
+                throw new InsufficientBalanceException(ApiMessages.BALANCE_INSUFFICIENT_ERROR.getMessage());
+            }
+
+            val newSourceBalance = sourceBalance - amount;
+            sourceAccount.setBalance(newSourceBalance);
+            accountRepository.save(sourceAccount);
+
+            val targetBalance = targetAccount.getBalance();
+            val newTargetBalance = targetBalance + amount;
+            targetAccount.setBalance(newTargetBalance);
+            accountRepository.save(targetAccount);
+
+            val transaction = new Transaction();
+            transaction.setAmount(amount);
+            transaction.setTransactionType(TransactionType.CASH_TRANSFER);
+            transaction.setTransactionDate(new Date());
+            transaction.setSourceAccount(sourceAccount);
+            transaction.setTargetAccount(targetAccount);
+            transactionRepository.save(transaction);
+
+            postingService.recordPosting(sourceAccount, transaction, -amount, targetAccount);
+            postingService.recordPosting(targetAccount, transaction, amount, sourceAccount);
+        });
     }
 }
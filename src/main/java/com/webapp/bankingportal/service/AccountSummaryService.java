@@ -0,0 +1,16 @@
+package com.webapp.bankingportal.service;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+import com.webapp.bankingportal.entity.Posting;
+
+public interface AccountSummaryService {
+
+    public void recordPosting(Posting posting);
+
+    public void rebuildSummaries();
+
+    public LocalDate monthOf(Date date);
+
+}
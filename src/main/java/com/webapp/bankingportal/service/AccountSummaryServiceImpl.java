@@ -0,0 +1,103 @@
+package com.webapp.bankingportal.service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.bankingportal.entity.AccountMonthlySummary;
+import com.webapp.bankingportal.entity.AccountMonthlySummary.Movement;
+import com.webapp.bankingportal.entity.Posting;
+import com.webapp.bankingportal.repository.AccountMonthlySummaryRepository;
+import com.webapp.bankingportal.repository.AccountRepository;
+
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains the per-account monthly summaries behind the dashboard. Every
+ * posting is added to its month as part of the money movement's transaction.
+ * The rebuild recomputes all summaries from the postings, one account id
+ * range per transaction, to repair any drift from writes that bypassed
+ * {@link #recordPosting(Posting)}. Both paths bucket by the month in the
+ * zone of the bank's clock; posting times are stored as wall clock times of
+ * the JVM zone, which the rebuild converts from.
+ */
+@Service
+@Slf4j
+public class AccountSummaryServiceImpl implements AccountSummaryService {
+
+    private final AccountMonthlySummaryRepository accountMonthlySummaryRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long rebuildChunkSize;
+    private final ZoneId zone;
+
+    public AccountSummaryServiceImpl(AccountMonthlySummaryRepository accountMonthlySummaryRepository,
+            AccountRepository accountRepository, PlatformTransactionManager transactionManager,
+            Clock clock, @Value("${account-summary.rebuild-chunk-size:1000}") long rebuildChunkSize) {
+        this.accountMonthlySummaryRepository = accountMonthlySummaryRepository;
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildChunkSize = rebuildChunkSize;
+        this.zone = clock.getZone();
+    }
+
+    @Override
+    public LocalDate monthOf(Date date) {
+        return AccountMonthlySummary.monthOf(date, zone);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPosting(Posting posting) {
+        val amount = posting.getAmount();
+        accountMonthlySummaryRepository.addMovement(posting.getAccountId(),
+                monthOf(posting.getTransactionDate()),
+                Movement.of(posting.getTransactionType(), amount), Math.abs(amount));
+    }
+
+    @Override
+    @Scheduled(cron = "${account-summary.rebuild-cron:0 0 3 * * SUN}", zone = "${calendar.zone:}")
+    public void rebuildSummaries() {
+        val maxId = accountRepository.findMaxId();
+        if (maxId == null) {
+            return;
+        }
+
+        log.info("Rebuilding monthly account summaries in zone {}", zone);
+        val storageZone = mysqlZone(ZoneId.systemDefault());
+        val summaryZone = mysqlZone(zone);
+        var rows = 0L;
+        for (var afterId = 0L; afterId < maxId; afterId += rebuildChunkSize) {
+            val from = afterId;
+            val to = afterId + rebuildChunkSize;
+            rows += transactionTemplate.execute(status -> {
+                accountMonthlySummaryRepository.deleteAccountRange(from, to);
+                return accountMonthlySummaryRepository.insertAccountRangeFromPostings(from, to, storageZone,
+                        summaryZone);
+            });
+        }
+
+        log.info("Rebuilt {} monthly account summaries", rows);
+    }
+
+    // MySQL takes fixed offsets as +hh:mm and everything else by its tz database name
+    private static String mysqlZone(ZoneId zone) {
+        val normalized = zone.normalized();
+        if (normalized instanceof ZoneOffset offset) {
+            return offset == ZoneOffset.UTC ? "+00:00" : offset.getId();
+        }
+        return zone.getId();
+    }
+
+}
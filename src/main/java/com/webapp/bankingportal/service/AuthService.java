@@ -2,8 +2,10 @@ package com.webapp.bankingportal.service;
 
 import org.springframework.http.ResponseEntity;
 
+import com.webapp.bankingportal.dto.OtpQueuedResponse;
 import com.webapp.bankingportal.dto.OtpRequest;
 import com.webapp.bankingportal.dto.OtpVerificationRequest;
+import com.webapp.bankingportal.dto.PasswordResetTokenResponse;
 import com.webapp.bankingportal.dto.ResetPasswordRequest;
 import com.webapp.bankingportal.entity.User;
 
@@ -14,9 +16,9 @@ public interface AuthService {
 
     public void deletePasswordResetToken(String token);
 
-    public ResponseEntity<String> sendOtpForPasswordReset(OtpRequest otpRequest);
+    public ResponseEntity<OtpQueuedResponse> sendOtpForPasswordReset(OtpRequest otpRequest);
 
-    public ResponseEntity<String> verifyOtpAndIssueResetToken(OtpVerificationRequest otpVerificationRequest);
+    public ResponseEntity<PasswordResetTokenResponse> verifyOtpAndIssueResetToken(OtpVerificationRequest otpVerificationRequest);
 
     public ResponseEntity<String> resetPassword(ResetPasswordRequest resetPasswordRequest);
 
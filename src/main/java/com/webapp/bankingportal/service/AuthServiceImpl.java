@@ -6,23 +6,26 @@ import java.util.UUID;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.webapp.bankingportal.dto.OtpQueuedResponse;
 import com.webapp.bankingportal.dto.OtpRequest;
 import com.webapp.bankingportal.dto.OtpVerificationRequest;
+import com.webapp.bankingportal.dto.PasswordResetTokenResponse;
 import com.webapp.bankingportal.dto.ResetPasswordRequest;
 import com.webapp.bankingportal.entity.PasswordResetToken;
 import com.webapp.bankingportal.entity.User;
+import com.webapp.bankingportal.exception.InvalidOtpException;
 import com.webapp.bankingportal.repository.PasswordResetTokenRepository;
 import com.webapp.bankingportal.util.ApiMessages;
 
-import lombok.RequiredArgsConstructor;
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
 
     private static final int EXPIRATION_HOURS = 24;
@@ -30,8 +33,18 @@ public class AuthServiceImpl implements AuthService {
     private final OtpService otpService;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+
+    public AuthServiceImpl(OtpService otpService, PasswordResetTokenRepository passwordResetTokenRepository,
+            UserService userService, PlatformTransactionManager transactionManager) {
+        this.otpService = otpService;
+        this.passwordResetTokenRepository = passwordResetTokenRepository;
+        this.userService = userService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     @Override
+    @Transactional
     public String generatePasswordResetToken(User user) {
         val existingToken = passwordResetTokenRepository.findByUser(user);
         if (isExistingTokenValid(existingToken)) {
@@ -62,7 +75,7 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
-    public ResponseEntity<String> sendOtpForPasswordReset(OtpRequest otpRequest) {
+    public ResponseEntity<OtpQueuedResponse> sendOtpForPasswordReset(OtpRequest otpRequest) {
         log.info("Received OTP request for identifier: {}", otpRequest.identifier());
         val user = userService.getUserByIdentifier(otpRequest.identifier());
         val accountNumber = user.getAccount().getAccountNumber();
@@ -72,25 +85,31 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
-    public ResponseEntity<String> verifyOtpAndIssueResetToken(OtpVerificationRequest otpVerificationRequest) {
+    @Transactional
+    public ResponseEntity<PasswordResetTokenResponse> verifyOtpAndIssueResetToken(OtpVerificationRequest otpVerificationRequest) {
         validateOtpRequest(otpVerificationRequest);
         val user = userService.getUserByIdentifier(otpVerificationRequest.identifier());
         val accountNumber = user.getAccount().getAccountNumber();
 
         if (!otpService.validateOTP(accountNumber, otpVerificationRequest.otp())) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiMessages.OTP_INVALID_ERROR.getMessage());
+            throw new InvalidOtpException(ApiMessages.OTP_INVALID_ERROR.getMessage());
         }
 
         String resetToken = generatePasswordResetToken(user);
-        return ResponseEntity.ok(String.format(ApiMessages.PASSWORD_RESET_TOKEN_ISSUED.getMessage(), resetToken));
+        return ResponseEntity.ok(new PasswordResetTokenResponse(resetToken));
     }
 
+    /**
+     * Consumes the reset token in its own transaction; the password is reset
+     * in the next one, after it has been hashed.
+     */
     @Override
-    @Transactional
     public ResponseEntity<String> resetPassword(ResetPasswordRequest resetPasswordRequest) {
         val user = userService.getUserByIdentifier(resetPasswordRequest.identifier());
 
-        if (!verifyPasswordResetToken(resetPasswordRequest.resetToken(), user)) {
+        val tokenValid = transactionTemplate
+                .execute(status -> verifyPasswordResetToken(resetPasswordRequest.resetToken(), user));
+        if (!tokenValid) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiMessages.TOKEN_INVALID_ERROR.getMessage());
         }
 
@@ -111,17 +130,13 @@ public class AuthServiceImpl implements AuthService {
         return existingToken != null && existingToken.getExpiryDateTime().isAfter(LocalDateTime.now().plusMinutes(5));
     }
 
-    private ResponseEntity<String> sendOtpEmail(User user, String accountNumber, String generatedOtp) {
-        val emailSendingFuture = otpService.sendOTPByEmail(user.getEmail(), user.getName(), accountNumber,
+    private ResponseEntity<OtpQueuedResponse> sendOtpEmail(User user, String accountNumber, String generatedOtp) {
+        val deliveryId = otpService.dispatchOTPByEmail(user.getEmail(), user.getName(), accountNumber,
                 generatedOtp);
 
-        val successResponse = ResponseEntity
-                .ok(String.format(ApiMessages.OTP_SENT_SUCCESS.getMessage(), user.getEmail()));
-        val failureResponse = ResponseEntity.internalServerError()
-                .body(String.format(ApiMessages.OTP_SENT_FAILURE.getMessage(), user.getEmail()));
-
-        return emailSendingFuture.thenApply(result -> successResponse)
-                .exceptionally(e -> failureResponse).join();
+        return ResponseEntity.accepted()
+                .body(new OtpQueuedResponse(
+                        String.format(ApiMessages.OTP_QUEUED_SUCCESS.getMessage(), user.getEmail()), deliveryId));
     }
 
     private void validateOtpRequest(OtpVerificationRequest otpVerificationRequest) {
@@ -1,9 +1,16 @@
 package com.webapp.bankingportal.service;
 
+import java.util.List;
+
 import com.webapp.bankingportal.dto.AccountResponse;
+import com.webapp.bankingportal.dto.DashboardOverviewResponse;
+import com.webapp.bankingportal.dto.MonthlySummaryResponse;
 import com.webapp.bankingportal.dto.UserResponse;
 
 public interface DashboardService {
     UserResponse getUserDetails(String accountNumber);
     AccountResponse getAccountDetails(String accountNumber);
+    List<MonthlySummaryResponse> getMonthlySummaries(String accountNumber, int months);
+    DashboardOverviewResponse getOverview(String accountNumber);
+    long getRevision(String accountNumber);
 }
\ No newline at end of file
@@ -1,12 +1,20 @@
 package com.webapp.bankingportal.service;
 
+import java.util.Date;
+import java.util.List;
+
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.webapp.bankingportal.dto.AccountResponse;
+import com.webapp.bankingportal.dto.DashboardOverviewResponse;
+import com.webapp.bankingportal.dto.MonthlySummaryResponse;
+import com.webapp.bankingportal.dto.TransactionSearchRequest;
 import com.webapp.bankingportal.dto.UserResponse;
+import com.webapp.bankingportal.entity.Account;
 import com.webapp.bankingportal.exception.NotFoundException;
+import com.webapp.bankingportal.repository.AccountMonthlySummaryRepository;
 import com.webapp.bankingportal.repository.AccountRepository;
-import com.webapp.bankingportal.repository.UserRepository;
 import com.webapp.bankingportal.util.ApiMessages;
 
 import lombok.RequiredArgsConstructor;
@@ -16,26 +24,80 @@ import lombok.val;
 @RequiredArgsConstructor
 public class DashboardServiceImpl implements DashboardService {
 
-    private final UserRepository userRepository;
     private final AccountRepository accountRepository;
+    private final AccountMonthlySummaryRepository accountMonthlySummaryRepository;
+    private final TransactionService transactionService;
+    private final AccountSummaryService accountSummaryService;
 
     @Override
+    @Transactional(readOnly = true)
     public UserResponse getUserDetails(String accountNumber) {
-        val user = userRepository.findByAccountAccountNumber(accountNumber)
-                .orElseThrow(() -> new NotFoundException(
-                        String.format(ApiMessages.USER_NOT_FOUND_BY_ACCOUNT.getMessage(), accountNumber)));
-
-        return new UserResponse(user);
+        val account = getAccount(accountNumber);
+        return new UserResponse(account.getUser(), account);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public AccountResponse getAccountDetails(String accountNumber) {
-        val account = accountRepository.findByAccountNumber(accountNumber);
+        return new AccountResponse(getAccount(accountNumber));
+    }
+
+    /**
+     * Returns the summaries of the current month and the months before it,
+     * newest first. Months without any movement have no row and are left out.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<MonthlySummaryResponse> getMonthlySummaries(String accountNumber, int months) {
+        val account = getAccount(accountNumber);
+        val fromMonth = accountSummaryService.monthOf(new Date()).minusMonths(months - 1L);
+        return accountMonthlySummaryRepository.findRecent(account.getId(), fromMonth).stream()
+                .map(MonthlySummaryResponse::new)
+                .toList();
+    }
+
+    /**
+     * Reads the user, the account and the first page of transactions in one
+     * read-only transaction, so all three reflect the same account revision.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public DashboardOverviewResponse getOverview(String accountNumber) {
+        val account = requireAccount(accountRepository.findCurrentByAccountNumber(accountNumber), accountNumber);
+        val firstPage = new TransactionSearchRequest(null, null, null, null, null, null, null, null, null);
+
+        return new DashboardOverviewResponse(account.getRevision(), new UserResponse(account.getUser(), account),
+                new AccountResponse(account), transactionService.searchTransactions(accountNumber, firstPage));
+    }
+
+    /**
+     * Resolves the account id through the natural-id cache, which is safe
+     * because account numbers never change, and reads the revision by primary
+     * key. The cached revision may be stale when another instance changed the
+     * account, and a stale ETag would answer 304 for an outdated dashboard.
+     * Runs outside a transaction, so the read goes to the primary.
+     */
+    @Override
+    public long getRevision(String accountNumber) {
+        val account = requireAccount(accountRepository.findByAccountNumberOutsideTransaction(accountNumber), accountNumber);
+        val revision = accountRepository.findRevisionById(account.getId());
+        if (revision == null) {
+            throw new NotFoundException(String.format(ApiMessages.USER_NOT_FOUND_BY_ACCOUNT.getMessage(), accountNumber));
+        }
+
+        return revision;
+    }
+
+    private Account getAccount(String accountNumber) {
+        return requireAccount(accountRepository.findByAccountNumber(accountNumber), accountNumber);
+    }
+
+    private static Account requireAccount(Account account, String accountNumber) {
         if (account == null) {
             throw new NotFoundException(String.format(ApiMessages.USER_NOT_FOUND_BY_ACCOUNT.getMessage(), accountNumber));
         }
 
-        return new AccountResponse(account);
+        return account;
     }
 
 }
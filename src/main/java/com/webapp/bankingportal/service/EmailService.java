@@ -2,6 +2,7 @@ package com.webapp.bankingportal.service;
 
 import java.util.concurrent.CompletableFuture;
 
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.scheduling.annotation.Async;
 
 public interface EmailService {
@@ -12,4 +13,10 @@ public interface EmailService {
     public String getLoginEmailTemplate(String name, String loginTime, String loginLocation);
 
     public String getOtpLoginEmailTemplate(String name, String accountNumber, String otp);
+
+    public String getStatementEmailTemplate(String name, String accountNumber, String period,
+            double openingBalance, double closingBalance, long transactionCount);
+
+    public void sendEmailWithAttachment(String to, String subject, String text, String attachmentName,
+            InputStreamSource attachment);
 }
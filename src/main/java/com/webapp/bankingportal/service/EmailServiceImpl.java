@@ -1,9 +1,10 @@
 package com.webapp.bankingportal.service;
 
-import java.io.File;
 import java.util.concurrent.CompletableFuture;
 
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailPreparationException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
@@ -100,21 +101,52 @@ public class EmailServiceImpl implements EmailService {
                 + "</div>" + "</div>" + "</div>" + "</div>";
     }
 
-    public void sendEmailWithAttachment(String to, String subject, String text, String attachmentFilePath) {
+    @Override
+    public String getStatementEmailTemplate(String name, String accountNumber, String period,
+            double openingBalance, double closingBalance, long transactionCount) {
+        return "<div style=\"font-family: Helvetica, Arial, sans-serif; min-width: 320px; max-width: 1000px; margin: 0 auto; overflow: auto; line-height: 2; background-color: #f1f1f1; padding: 20px;\">"
+                + "<div style=\"margin: 50px auto; width: 100%; max-width: 600px; padding: 20px; background-color: #ffffff; border-radius: 8px; box-shadow: 0 0 20px rgba(0, 0, 0, 0.1);\">"
+                + "<div style=\"border-bottom: 1px solid #ddd; padding-bottom: 10px; text-align: center;\">"
+                + "<a href=\"https://onestopbank.netlify.app/\" style=\"text-decoration: none;\">"
+                + "<img src=\"https://onestopbank.netlify.app/assets/onestoplogo.jpg\" alt=\"OneStopBank\" style=\"height: 50px; margin-bottom: 10px;\">"
+                + "</a>" + "<h1 style=\"font-size: 1.8em; color: #3f51b5; margin: 10px 0;\">OneStopBank</h1>" + "</div>"
+                + "<div style=\"padding: 20px;\">" + "<p style=\"font-size: 1.2em; color: #333;\">Hi, " + name + ",</p>"
+                + "<p style=\"font-size: 1em; color: #333;\">Your statement for " + period
+                + " is attached as a CSV file.</p>"
+                + "<p style=\"font-size: 1em; color: #555;\">Account Number: <strong style=\"color: #3f51b5;\">"
+                + accountNumber + "</strong></p>"
+                + "<p style=\"font-size: 1em; color: #555;\">Opening balance: <strong style=\"color: #3f51b5;\">"
+                + String.format("%.2f", openingBalance) + "</strong></p>"
+                + "<p style=\"font-size: 1em; color: #555;\">Closing balance: <strong style=\"color: #3f51b5;\">"
+                + String.format("%.2f", closingBalance) + "</strong></p>"
+                + "<p style=\"font-size: 1em; color: #555;\">Transactions: <strong style=\"color: #3f51b5;\">"
+                + transactionCount + "</strong></p>"
+                + "<p style=\"font-size: 1em; color: #555;\">Regards,<br />The OneStopBank Team</p>" + "</div>"
+                + "<hr style=\"border: none; border-top: 1px solid #ddd; margin: 20px 0;\" />"
+                + "<div style=\"text-align: center; font-size: 0.9em; color: #888;\">"
+                + "<p>Need help? Contact our support team:</p>"
+                + "<p>Email: <a href=\"mailto:onestopbank@google.com\" style=\"color: #3f51b5; text-decoration: none;\">onestopbank@google.com</a></p>"
+                + "</div>" + "</div>" + "</div>";
+    }
+
+    /**
+     * Sends a mail with one attachment on the calling thread. Failures are
+     * thrown so that callers can retry the delivery later.
+     */
+    @Override
+    public void sendEmailWithAttachment(String to, String subject, String text, String attachmentName,
+            InputStreamSource attachment) {
         try {
             val message = mailSender.createMimeMessage();
             val helper = new MimeMessageHelper(message, true);
             helper.setTo(to);
             helper.setSubject(subject);
             helper.setText(text, true); // Set the second parameter to true to send HTML content
-
-            // Add an attachment to the email
-            val attachmentFile = new File(attachmentFilePath);
-            helper.addAttachment(attachmentFile.getName(), attachmentFile);
+            helper.addAttachment(attachmentName, attachment);
 
             mailSender.send(message);
         } catch (MessagingException e) {
-            log.error("Failed to send email to {}", to, e);
+            throw new MailPreparationException("Failed to prepare email to " + to, e);
         }
     }
 
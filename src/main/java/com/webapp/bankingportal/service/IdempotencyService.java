@@ -0,0 +1,14 @@
+package com.webapp.bankingportal.service;
+
+import java.util.function.Supplier;
+
+import org.springframework.http.ResponseEntity;
+
+public interface IdempotencyService {
+
+    public ResponseEntity<String> execute(String accountNumber, String idempotencyKey, String requestFingerprint,
+            Supplier<ResponseEntity<String>> action);
+
+    public void purgeExpiredRecords();
+
+}
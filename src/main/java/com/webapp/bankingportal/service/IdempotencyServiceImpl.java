@@ -0,0 +1,189 @@
+package com.webapp.bankingportal.service;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.webapp.bankingportal.entity.IdempotencyRecord;
+import com.webapp.bankingportal.exception.IdempotencyKeyException;
+import com.webapp.bankingportal.repository.IdempotencyRecordRepository;
+import com.webapp.bankingportal.util.ApiMessages;
+import com.webapp.bankingportal.util.DigestUtil;
+
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a money movement at most once per account and idempotency key.
+ * Completed results are served from a bounded in-memory cache backed by the
+ * {@code idempotency_record} table, and concurrent requests carrying the same
+ * key wait on the first one instead of executing again. Across instances the
+ * key is claimed by inserting its row before the movement runs.
+ */
+@Service
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 64;
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final Cache<String, IdempotencyRecord> completed;
+    private final ConcurrentMap<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+    private final long ttl;
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository,
+            @Value("${idempotency.ttl:86400000}") long ttl,
+            @Value("${idempotency.cache-size:10000}") long cacheSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.ttl = ttl;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Override
+    public ResponseEntity<String> execute(String accountNumber, String idempotencyKey, String requestFingerprint,
+            Supplier<ResponseEntity<String>> action) {
+
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IdempotencyKeyException(
+                    String.format(ApiMessages.IDEMPOTENCY_KEY_INVALID_ERROR.getMessage(), MAX_KEY_LENGTH));
+        }
+
+        val requestDigest = DigestUtil.sha256Hex(requestFingerprint);
+        val cacheKey = accountNumber + ':' + idempotencyKey;
+
+        val cached = completed.getIfPresent(cacheKey);
+        if (cached != null) {
+            return replay(cached, requestDigest);
+        }
+
+        val future = new CompletableFuture<IdempotencyRecord>();
+        val running = inFlight.putIfAbsent(cacheKey, future);
+        if (running != null) {
+            return replay(await(running), requestDigest);
+        }
+
+        try {
+            var record = idempotencyRecordRepository.findByAccountNumberAndIdempotencyKey(accountNumber,
+                    idempotencyKey);
+            var replayed = record != null;
+            if (!replayed) {
+                val claim = claim(accountNumber, idempotencyKey, requestDigest);
+                replayed = claim == null;
+                record = replayed
+                        ? idempotencyRecordRepository.findByAccountNumberAndIdempotencyKey(accountNumber,
+                                idempotencyKey)
+                        : executeClaimed(claim, action);
+            }
+
+            if (record != null && !record.isPending()) {
+                completed.put(cacheKey, record);
+            }
+            future.complete(record);
+            return replayed ? replay(record, requestDigest) : toResponse(record);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, future);
+        }
+    }
+
+    // Null when another request, possibly on another instance, holds the key
+    private IdempotencyRecord claim(String accountNumber, String idempotencyKey, String requestDigest) {
+        try {
+            return idempotencyRecordRepository.saveAndFlush(
+                    new IdempotencyRecord(accountNumber, idempotencyKey, requestDigest));
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs the movement outside any transaction of this service, so it checks
+     * the PIN before taking a connection and its locked read is the first load
+     * of the account. A failed movement moved nothing and releases the key. A
+     * crash between the movement and storing its response leaves the claim
+     * pending until it expires, so a retry is refused rather than run again.
+     */
+    private IdempotencyRecord executeClaimed(IdempotencyRecord claim, Supplier<ResponseEntity<String>> action) {
+        final ResponseEntity<String> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyRecordRepository.delete(claim);
+            throw e;
+        }
+
+        claim.setStatusCode(response.getStatusCode().value());
+        claim.setResponseBody(response.getBody());
+        return idempotencyRecordRepository.save(claim);
+    }
+
+    private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            throw e;
+        }
+    }
+
+    private ResponseEntity<String> replay(IdempotencyRecord record, String requestDigest) {
+        // A vanished claim was released by a failed request and the key can be retried
+        if (record == null) {
+            throw new IdempotencyKeyException(ApiMessages.IDEMPOTENCY_KEY_IN_PROGRESS_ERROR.getMessage());
+        }
+
+        if (!record.getRequestDigest().equals(requestDigest)) {
+            throw new IdempotencyKeyException(ApiMessages.IDEMPOTENCY_KEY_REUSED_ERROR.getMessage());
+        }
+
+        if (record.isPending()) {
+            throw new IdempotencyKeyException(ApiMessages.IDEMPOTENCY_KEY_IN_PROGRESS_ERROR.getMessage());
+        }
+
+        return ResponseEntity.status(record.getStatusCode())
+                .header(REPLAYED_HEADER, "true")
+                .body(record.getResponseBody());
+    }
+
+    private ResponseEntity<String> toResponse(IdempotencyRecord record) {
+        return ResponseEntity.status(record.getStatusCode()).body(record.getResponseBody());
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:3600000}")
+    public void purgeExpiredRecords() {
+        val purged = idempotencyRecordRepository
+                .deleteAllCreatedBefore(new Date(System.currentTimeMillis() - ttl));
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency records", purged);
+        }
+    }
+
+}
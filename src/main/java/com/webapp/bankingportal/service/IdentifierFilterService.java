@@ -0,0 +1,15 @@
+package com.webapp.bankingportal.service;
+
+import com.webapp.bankingportal.entity.User;
+
+public interface IdentifierFilterService {
+
+    public boolean isKnownMissing(String identifier);
+
+    public void register(User user);
+
+    public void recordLookup(String identifier, boolean found);
+
+    public void rebuild();
+
+}
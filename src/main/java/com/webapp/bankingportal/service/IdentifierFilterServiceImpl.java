@@ -0,0 +1,278 @@
+package com.webapp.bankingportal.service;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.webapp.bankingportal.entity.User;
+import com.webapp.bankingportal.repository.UserRepository;
+import com.webapp.bankingportal.util.BloomFilter;
+import com.webapp.bankingportal.util.ValidationUtil;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bloom filters over every existing email, phone number and account number,
+ * used to tell lookups of unknown identifiers, such as enumeration attempts,
+ * from lookups of existing ones. Until the first build completes every
+ * identifier is reported as possibly existing.
+ *
+ * The filters are per instance and only {@link #register(User)} keeps them
+ * current between rebuilds, so a user created or changed on another instance
+ * is a miss here until the next rebuild. A miss alone is therefore never taken
+ * as proof that an identifier does not exist: the first lookup still queries
+ * the database and reports the outcome through
+ * {@link #recordLookup(String, boolean)}. A confirmed miss is remembered for
+ * {@code identifier-filter.negative-ttl}, during which repeated lookups are
+ * answered by {@link #isKnownMissing(String)} without a query; a miss the
+ * database contradicts is added to the filters. A user registered on another
+ * instance can thus be reported missing here for at most that TTL.
+ *
+ * Changed emails and phone numbers stay in the filters until the next
+ * rebuild, which only costs false positives.
+ */
+@Service
+@Slf4j
+public class IdentifierFilterServiceImpl implements IdentifierFilterService, MeterBinder {
+
+    private record Filters(BloomFilter emails, BloomFilter phoneNumbers, BloomFilter accountNumbers) {
+
+        Filters(long expectedInsertions, double falsePositiveRate) {
+            this(new BloomFilter(expectedInsertions, falsePositiveRate),
+                    new BloomFilter(expectedInsertions, falsePositiveRate),
+                    new BloomFilter(expectedInsertions, falsePositiveRate));
+        }
+
+        void put(String email, String phoneNumber, String accountNumber) {
+            if (email != null) {
+                emails.put(email.toLowerCase());
+            }
+            if (phoneNumber != null) {
+                phoneNumbers.put(phoneNumber);
+            }
+            if (accountNumber != null) {
+                accountNumbers.put(accountNumber);
+            }
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final double falsePositiveRate;
+    private final long minExpectedInsertions;
+
+    private final AtomicLong unknownLookups = new AtomicLong();
+    private final AtomicLong staleMisses = new AtomicLong();
+    private final AtomicLong rejectedLookups = new AtomicLong();
+
+    // Filter misses the database confirmed, by normalized identifier
+    private final Cache<String, Boolean> confirmedMisses;
+
+    private volatile Filters filters;
+    private volatile Filters building;
+
+    public IdentifierFilterServiceImpl(UserRepository userRepository,
+            @Value("${identifier-filter.enabled:true}") boolean enabled,
+            @Value("${identifier-filter.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${identifier-filter.expected-insertions:100000}") long minExpectedInsertions,
+            @Value("${identifier-filter.negative-ttl:30000}") long negativeTtl,
+            @Value("${identifier-filter.negative-cache-size:100000}") long negativeCacheSize) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.minExpectedInsertions = minExpectedInsertions;
+        this.confirmedMisses = Caffeine.newBuilder()
+                .maximumSize(negativeCacheSize)
+                .expireAfterWrite(negativeTtl, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Override
+    public boolean isKnownMissing(String identifier) {
+        if (mightExist(identifier) || confirmedMisses.getIfPresent(normalize(identifier)) == null) {
+            return false;
+        }
+
+        rejectedLookups.incrementAndGet();
+        return true;
+    }
+
+    private boolean mightExist(String identifier) {
+        val current = filters;
+        if (current == null) {
+            return true;
+        }
+
+        if (identifier.indexOf('@') >= 0) {
+            return current.emails().mightContain(normalize(identifier));
+        }
+
+        if (ValidationUtil.isValidAccountNumber(identifier)) {
+            return current.accountNumbers().mightContain(identifier);
+        }
+
+        return current.phoneNumbers().mightContain(identifier);
+    }
+
+    private static String normalize(String identifier) {
+        return identifier.indexOf('@') >= 0 ? identifier.toLowerCase() : identifier;
+    }
+
+    /**
+     * Adds the user's identifiers. Call before the transaction that creates or
+     * changes the user commits, so a lookup right after the commit hits.
+     */
+    @Override
+    public void register(User user) {
+        val accountNumber = user.getAccount() != null ? user.getAccount().getAccountNumber() : null;
+
+        // Users created while a rebuild is streaming may be missing from its
+        // snapshot. Reading building first means that once it reads null, the
+        // rebuild has already swapped its filters in and filters is the new set.
+        val next = building;
+        if (next != null) {
+            next.put(user.getEmail(), user.getPhoneNumber(), accountNumber);
+        }
+
+        val current = filters;
+        if (current != null && current != next) {
+            current.put(user.getEmail(), user.getPhoneNumber(), accountNumber);
+        }
+
+        for (val identifier : new String[] { user.getEmail(), user.getPhoneNumber(), accountNumber }) {
+            if (identifier != null) {
+                confirmedMisses.invalidate(normalize(identifier));
+            }
+        }
+    }
+
+    @Override
+    public void recordLookup(String identifier, boolean found) {
+        if (mightExist(identifier)) {
+            return;
+        }
+
+        if (!found) {
+            unknownLookups.incrementAndGet();
+            confirmedMisses.put(normalize(identifier), Boolean.TRUE);
+            return;
+        }
+
+        // Created or changed on another instance since the last rebuild
+        staleMisses.incrementAndGet();
+        confirmedMisses.invalidate(normalize(identifier));
+        val current = filters;
+        if (current != null) {
+            if (identifier.indexOf('@') >= 0) {
+                current.emails().put(normalize(identifier));
+            } else if (ValidationUtil.isValidAccountNumber(identifier)) {
+                current.accountNumbers().put(identifier);
+            } else {
+                current.phoneNumbers().put(identifier);
+            }
+        }
+    }
+
+    /**
+     * Builds fresh filters by streaming the user table and swaps them in.
+     * Sized for twice the current user count so growth until the next rebuild
+     * keeps the false-positive rate near its target.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${identifier-filter.rebuild-interval:86400000}",
+            fixedDelayString = "${identifier-filter.rebuild-interval:86400000}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        val expectedInsertions = Math.max(minExpectedInsertions, userRepository.count() * 2);
+        val next = new Filters(expectedInsertions, falsePositiveRate);
+        building = next;
+
+        try {
+            try (val identifiers = userRepository.streamAllIdentifiers()) {
+                identifiers.forEach(user -> next.put(user.email(), user.phoneNumber(), user.accountNumber()));
+            }
+
+            // Swapped in before building is cleared; see register()
+            filters = next;
+        } finally {
+            building = null;
+        }
+
+        log.info("Built identifier filters for {} users using {} bytes", next.emails().getInsertions(),
+                next.emails().getMemoryBytes() + next.phoneNumbers().getMemoryBytes()
+                        + next.accountNumbers().getMemoryBytes());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("identifier.filter.misses", unknownLookups, AtomicLong::get)
+                .tag("result", "unknown")
+                .description("Lookups of identifiers missing from both the filter and the database")
+                .register(registry);
+
+        FunctionCounter.builder("identifier.filter.misses", staleMisses, AtomicLong::get)
+                .tag("result", "stale")
+                .description("Lookups of existing identifiers the filter did not know about yet")
+                .register(registry);
+
+        FunctionCounter.builder("identifier.filter.misses", rejectedLookups, AtomicLong::get)
+                .tag("result", "rejected")
+                .description("Lookups of confirmed unknown identifiers answered without a query")
+                .register(registry);
+
+        for (val filter : Map.<String, Function<Filters, BloomFilter>> of(
+                "email", Filters::emails,
+                "phone_number", Filters::phoneNumbers,
+                "account_number", Filters::accountNumbers).entrySet()) {
+
+            Gauge.builder("identifier.filter.false.positive.rate", this,
+                    service -> service.measure(filter.getValue(), BloomFilter::expectedFalsePositiveRate))
+                    .tag("identifier", filter.getKey())
+                    .description("Estimated false-positive rate of the identifier Bloom filter")
+                    .register(registry);
+
+            Gauge.builder("identifier.filter.memory", this,
+                    service -> service.measure(filter.getValue(), BloomFilter::getMemoryBytes))
+                    .tag("identifier", filter.getKey())
+                    .baseUnit("bytes")
+                    .description("Memory used by the identifier Bloom filter bit array")
+                    .register(registry);
+
+            Gauge.builder("identifier.filter.insertions", this,
+                    service -> service.measure(filter.getValue(), BloomFilter::getInsertions))
+                    .tag("identifier", filter.getKey())
+                    .description("Identifiers added to the Bloom filter since it was built")
+                    .register(registry);
+        }
+    }
+
+    private double measure(Function<Filters, BloomFilter> selector,
+            ToDoubleFunction<BloomFilter> metric) {
+        val current = filters;
+        return current == null ? Double.NaN : metric.applyAsDouble(selector.apply(current));
+    }
+
+}
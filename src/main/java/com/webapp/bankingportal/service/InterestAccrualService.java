@@ -0,0 +1,13 @@
+package com.webapp.bankingportal.service;
+
+import java.time.LocalDate;
+
+import com.webapp.bankingportal.dto.InterestAccrualReport;
+
+public interface InterestAccrualService {
+
+    public InterestAccrualReport accrueInterest(LocalDate accrualDate);
+
+    public void accrueDailyInterest();
+
+}
@@ -0,0 +1,396 @@
+package com.webapp.bankingportal.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.hibernate.LockMode;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.webapp.bankingportal.dto.InterestAccrualPartitionReport;
+import com.webapp.bankingportal.dto.InterestAccrualReport;
+import com.webapp.bankingportal.entity.Account;
+import com.webapp.bankingportal.entity.AccountMonthlySummary.Movement;
+import com.webapp.bankingportal.entity.InterestAccrualCheckpoint;
+import com.webapp.bankingportal.entity.InterestAccrualRun;
+import com.webapp.bankingportal.entity.TransactionType;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Credits daily interest to savings accounts as {@code CASH_CREDIT}
+ * transactions.
+ *
+ * Accounts are split into fixed id ranges that are processed in parallel on a
+ * bounded fork-join pool. Each partition works through its range in chunks on
+ * a stateless session: one transaction per chunk locks the partition's
+ * checkpoint and the chunk's accounts, writes the transactions, postings,
+ * balances and monthly summaries as JDBC batches and advances the
+ * checkpoint. An interrupted run resumes from the checkpoints, and concurrent
+ * runs for the same day serialize on them instead of crediting twice. The
+ * partition size a day was first run with is recorded, and a run with a
+ * different one is refused rather than mapped onto mismatched checkpoints.
+ * Credits are dated the last second of the accrued day.
+ *
+ * Writes bypass the persistence context, so the second-level cache entries of
+ * credited accounts are evicted after every chunk.
+ */
+@Service
+@Slf4j
+public class InterestAccrualServiceImpl implements InterestAccrualService {
+
+    private static final String SELECT_ACCOUNTS = "SELECT id, balance, last_posting_seq FROM account "
+            + "WHERE id > ? AND id <= ? AND account_type = ? ORDER BY id LIMIT ? FOR UPDATE";
+
+    private static final String INSERT_TRANSACTION = "INSERT INTO transaction "
+            + "(amount, transaction_type, transaction_date, source_account_id) VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_POSTING = "INSERT INTO posting (account_id, seq, transaction_id, amount, "
+            + "balance_after, transaction_type, transaction_date) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_ACCOUNT = "UPDATE account SET balance = ?, last_posting_seq = ?, "
+            + "revision = revision + 1 WHERE id = ?";
+
+    private record Credit(long accountId, long seq, double interest, double balanceAfter) {
+    }
+
+    private record Chunk(List<Credit> credits, long lastAccountId, boolean exhausted) {
+
+        double interest() {
+            return credits.stream().mapToDouble(Credit::interest).sum();
+        }
+    }
+
+    private final SessionFactory sessionFactory;
+    private final AccountSummaryService accountSummaryService;
+    private final Clock clock;
+    private final boolean enabled;
+    private final BigDecimal annualRate;
+    private final int parallelism;
+    private final long partitionSize;
+    private final int batchSize;
+
+    public InterestAccrualServiceImpl(EntityManagerFactory entityManagerFactory,
+            AccountSummaryService accountSummaryService, Clock clock,
+            @Value("${interest.accrual.enabled:true}") boolean enabled,
+            @Value("${interest.accrual.annual-rate:0.035}") BigDecimal annualRate,
+            @Value("${interest.accrual.parallelism:4}") int parallelism,
+            @Value("${interest.accrual.partition-size:10000}") long partitionSize,
+            @Value("${interest.accrual.batch-size:500}") int batchSize) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.accountSummaryService = accountSummaryService;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.annualRate = annualRate;
+        this.parallelism = parallelism;
+        this.partitionSize = partitionSize;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Scheduled(cron = "${interest.accrual.cron:0 30 1 * * *}", zone = "${calendar.zone:}")
+    public void accrueDailyInterest() {
+        if (!enabled) {
+            return;
+        }
+
+        val report = accrueInterest(LocalDate.now(clock).minusDays(1));
+        if (!report.completed()) {
+            log.warn("Interest accrual for {} did not complete; the next run resumes from its checkpoints",
+                    report.accrualDate());
+        }
+    }
+
+    @Override
+    public InterestAccrualReport accrueInterest(LocalDate accrualDate) {
+        val started = System.nanoTime();
+        val bounds = savingsAccountIdBounds();
+        if (bounds == null) {
+            return new InterestAccrualReport(accrualDate, List.of(), 0);
+        }
+
+        // Partition boundaries only depend on the partition size, so a
+        // restarted run maps onto the checkpoints of the interrupted one
+        // as long as that size is the one the day was started with
+        val runPartitionSize = runPartitionSize(accrualDate);
+        if (runPartitionSize != partitionSize) {
+            throw new IllegalStateException(String.format("Interest accrual for %s was started with partition "
+                    + "size %d and cannot resume with %d", accrualDate, runPartitionSize, partitionSize));
+        }
+
+        val firstPartition = (bounds[0] - 1) / partitionSize;
+        val lastPartition = (bounds[1] - 1) / partitionSize;
+        log.info("Accruing interest for {} over {} partitions", accrualDate, lastPartition - firstPartition + 1);
+
+        val pool = new ForkJoinPool(parallelism);
+        try {
+            val tasks = new ArrayList<ForkJoinTask<InterestAccrualPartitionReport>>();
+            for (var partition = firstPartition; partition <= lastPartition; partition++) {
+                val startId = partition * partitionSize;
+                tasks.add(pool.submit(() -> accruePartition(accrualDate, startId, startId + partitionSize)));
+            }
+
+            val partitions = tasks.stream().map(ForkJoinTask::join).toList();
+            val report = new InterestAccrualReport(accrualDate, partitions, elapsedMillis(started));
+            log.info("Interest accrual for {} credited {} accounts with {} in {} ms", accrualDate,
+                    report.accountsCredited(), report.interestCredited(), report.elapsedMillis());
+            return report;
+
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private long[] savingsAccountIdBounds() {
+        try (var session = sessionFactory.openStatelessSession()) {
+            val bounds = session.createSelectionQuery(
+                    "SELECT MIN(a.id), MAX(a.id) FROM Account a WHERE a.accountType = :accountType", Object[].class)
+                    .setParameter("accountType", Account.SAVINGS_ACCOUNT_TYPE)
+                    .getSingleResult();
+
+            if (bounds[0] == null) {
+                return null;
+            }
+
+            return new long[] { (Long) bounds[0], (Long) bounds[1] };
+        }
+    }
+
+    private long runPartitionSize(LocalDate accrualDate) {
+        try (var session = sessionFactory.openStatelessSession()) {
+            val existing = findRun(session, accrualDate);
+            if (existing != null) {
+                return existing.getPartitionSize();
+            }
+
+            val transaction = session.beginTransaction();
+            try {
+                session.insert(new InterestAccrualRun(accrualDate, partitionSize));
+                transaction.commit();
+                return partitionSize;
+
+            } catch (ConstraintViolationException e) {
+                // Another run for the same day started first
+                transaction.rollback();
+                return findRun(session, accrualDate).getPartitionSize();
+            }
+        }
+    }
+
+    private static InterestAccrualRun findRun(StatelessSession session, LocalDate accrualDate) {
+        return session.createSelectionQuery("FROM InterestAccrualRun r WHERE r.accrualDate = :accrualDate",
+                InterestAccrualRun.class)
+                .setParameter("accrualDate", accrualDate)
+                .uniqueResult();
+    }
+
+    private InterestAccrualPartitionReport accruePartition(LocalDate accrualDate, long startId, long endId) {
+        val started = System.nanoTime();
+        var accounts = 0L;
+        var interest = 0.0;
+        var completed = false;
+
+        try (var session = sessionFactory.openStatelessSession()) {
+            val checkpointId = checkpointId(session, accrualDate, startId, endId);
+            while (!completed) {
+                val chunk = accrueChunk(session, checkpointId, accrualDate);
+                accounts += chunk.credits().size();
+                interest += chunk.interest();
+                completed = chunk.exhausted();
+            }
+
+        } catch (RuntimeException e) {
+            log.error("Interest accrual for {} failed in partition ({}, {}]", accrualDate, startId, endId, e);
+        }
+
+        val report = new InterestAccrualPartitionReport(startId, endId, accounts, interest,
+                elapsedMillis(started), completed);
+        log.info("Interest accrual partition ({}, {}]: {} accounts, {} credited in {} ms ({} accounts/s)",
+                startId, endId, accounts, interest, report.elapsedMillis(),
+                String.format("%.0f", report.accountsPerSecond()));
+        return report;
+    }
+
+    private long checkpointId(StatelessSession session, LocalDate accrualDate, long startId, long endId) {
+        val existing = findCheckpoint(session, accrualDate, startId);
+        if (existing != null) {
+            return existing.getId();
+        }
+
+        val transaction = session.beginTransaction();
+        try {
+            val checkpoint = new InterestAccrualCheckpoint(accrualDate, startId, endId);
+            session.insert(checkpoint);
+            transaction.commit();
+            return checkpoint.getId();
+
+        } catch (ConstraintViolationException e) {
+            // Another run created the checkpoint first
+            transaction.rollback();
+            return findCheckpoint(session, accrualDate, startId).getId();
+        }
+    }
+
+    private static InterestAccrualCheckpoint findCheckpoint(StatelessSession session, LocalDate accrualDate,
+            long startId) {
+        return session.createSelectionQuery("FROM InterestAccrualCheckpoint c "
+                + "WHERE c.accrualDate = :accrualDate AND c.startId = :startId", InterestAccrualCheckpoint.class)
+                .setParameter("accrualDate", accrualDate)
+                .setParameter("startId", startId)
+                .uniqueResult();
+    }
+
+    private Chunk accrueChunk(StatelessSession session, long checkpointId, LocalDate accrualDate) {
+        val transaction = session.beginTransaction();
+        Chunk chunk;
+        try {
+            val checkpoint = session.get(InterestAccrualCheckpoint.class, checkpointId, LockMode.PESSIMISTIC_WRITE);
+            if (checkpoint.isCompleted()) {
+                transaction.commit();
+                return new Chunk(List.of(), checkpoint.getLastAccountId(), true);
+            }
+
+            chunk = session.doReturningWork(connection -> creditAccounts(connection, checkpoint, accrualDate));
+
+            checkpoint.setLastAccountId(chunk.lastAccountId());
+            checkpoint.setAccountsCredited(checkpoint.getAccountsCredited() + chunk.credits().size());
+            checkpoint.setInterestCredited(checkpoint.getInterestCredited() + chunk.interest());
+            checkpoint.setCompleted(chunk.exhausted());
+            checkpoint.setUpdatedAt(new Date());
+            session.update(checkpoint);
+            transaction.commit();
+
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+
+        val cache = sessionFactory.getCache();
+        chunk.credits().forEach(credit -> cache.evictEntityData(Account.class, credit.accountId()));
+        return chunk;
+    }
+
+    private Chunk creditAccounts(Connection connection, InterestAccrualCheckpoint checkpoint, LocalDate accrualDate)
+            throws SQLException {
+        val daysInYear = BigDecimal.valueOf(accrualDate.lengthOfYear());
+        val credits = new ArrayList<Credit>(batchSize);
+        var lastAccountId = checkpoint.getLastAccountId();
+        var scanned = 0;
+
+        try (val select = connection.prepareStatement(SELECT_ACCOUNTS)) {
+            select.setLong(1, checkpoint.getLastAccountId());
+            select.setLong(2, checkpoint.getEndId());
+            select.setString(3, Account.SAVINGS_ACCOUNT_TYPE);
+            select.setInt(4, batchSize);
+
+            try (val accounts = select.executeQuery()) {
+                while (accounts.next()) {
+                    lastAccountId = accounts.getLong(1);
+                    scanned++;
+
+                    val balance = BigDecimal.valueOf(accounts.getDouble(2));
+                    val interest = balance.multiply(annualRate).divide(daysInYear, 2, RoundingMode.HALF_EVEN);
+                    if (interest.signum() > 0) {
+                        credits.add(new Credit(lastAccountId, accounts.getLong(3) + 1, interest.doubleValue(),
+                                balance.add(interest).doubleValue()));
+                    }
+                }
+            }
+        }
+
+        if (!credits.isEmpty()) {
+            writeCredits(connection, credits, accrualDate);
+        }
+
+        return new Chunk(credits, lastAccountId, scanned < batchSize);
+    }
+
+    private void writeCredits(Connection connection, List<Credit> credits, LocalDate accrualDate)
+            throws SQLException {
+        // Whole seconds: MySQL would round a fraction up into the next day
+        val transactionDate = Timestamp.from(accrualDate.atTime(23, 59, 59).atZone(clock.getZone()).toInstant());
+        val transactionType = TransactionType.CASH_CREDIT.name();
+        val transactionIds = new long[credits.size()];
+
+        try (val insert = connection.prepareStatement(INSERT_TRANSACTION, Statement.RETURN_GENERATED_KEYS)) {
+            for (val credit : credits) {
+                insert.setDouble(1, credit.interest());
+                insert.setString(2, transactionType);
+                insert.setTimestamp(3, transactionDate);
+                insert.setLong(4, credit.accountId());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+
+            try (val keys = insert.getGeneratedKeys()) {
+                for (var i = 0; i < transactionIds.length; i++) {
+                    if (!keys.next()) {
+                        throw new SQLException("Missing generated key for interest transaction " + i);
+                    }
+                    transactionIds[i] = keys.getLong(1);
+                }
+            }
+        }
+
+        try (val insert = connection.prepareStatement(INSERT_POSTING)) {
+            for (var i = 0; i < transactionIds.length; i++) {
+                val credit = credits.get(i);
+                insert.setLong(1, credit.accountId());
+                insert.setLong(2, credit.seq());
+                insert.setLong(3, transactionIds[i]);
+                insert.setDouble(4, credit.interest());
+                insert.setDouble(5, credit.balanceAfter());
+                insert.setString(6, transactionType);
+                insert.setTimestamp(7, transactionDate);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+
+        try (val update = connection.prepareStatement(UPDATE_ACCOUNT)) {
+            for (val credit : credits) {
+                update.setDouble(1, credit.balanceAfter());
+                update.setLong(2, credit.seq());
+                update.setLong(3, credit.accountId());
+                update.addBatch();
+            }
+            update.executeBatch();
+        }
+
+        val month = accountSummaryService.monthOf(transactionDate);
+        try (val upsert = connection.prepareStatement(Movement.CREDIT.upsertSql())) {
+            for (val credit : credits) {
+                upsert.setLong(1, credit.accountId());
+                upsert.setObject(2, month);
+                upsert.setDouble(3, credit.interest());
+                upsert.addBatch();
+            }
+            upsert.executeBatch();
+        }
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000;
+    }
+
+}
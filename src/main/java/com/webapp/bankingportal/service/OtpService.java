@@ -2,11 +2,15 @@ package com.webapp.bankingportal.service;
 
 import java.util.concurrent.CompletableFuture;
 
+import com.webapp.bankingportal.dto.OtpDeliveryStatus;
+
 public interface OtpService {
 
 	String generateOTP(String accountNumber);
 
 	public CompletableFuture<Void> sendOTPByEmail(String email,String name,String accountNumber, String otp) ;	
+	public String dispatchOTPByEmail(String email, String name, String accountNumber, String otp);
+	public OtpDeliveryStatus getDeliveryStatus(String deliveryId);
 	public boolean validateOTP(String accountNumber, String otp);
 
 }
@@ -3,14 +3,18 @@ package com.webapp.bankingportal.service;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Random;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.webapp.bankingportal.dto.OtpDeliveryStatus;
 import com.webapp.bankingportal.entity.OtpInfo;
 import com.webapp.bankingportal.exception.AccountDoesNotExistException;
 import com.webapp.bankingportal.exception.InvalidOtpException;
+import com.webapp.bankingportal.exception.NotFoundException;
 import com.webapp.bankingportal.exception.OtpRetryLimitExceededException;
 import com.webapp.bankingportal.repository.OtpInfoRepository;
 import com.webapp.bankingportal.util.ValidationUtil;
@@ -36,6 +40,7 @@ public class OtpServiceImpl implements OtpService {
     private LocalDateTime otpLimitReachedTime = null;
 
     @Override
+    @Transactional
     public String generateOTP(String accountNumber) {
         if (!validationUtil.doesAccountExist(accountNumber)) {
             throw new AccountDoesNotExistException(ApiMessages.ACCOUNT_NOT_FOUND.getMessage());
@@ -149,7 +154,40 @@ public class OtpServiceImpl implements OtpService {
         return emailService.sendEmail(email, ApiMessages.EMAIL_SUBJECT_OTP.getMessage(), emailText);
     }
 
+    /**
+     * Queues the OTP email without waiting for the SMTP round trip. The
+     * returned id can be polled through {@link #getDeliveryStatus(String)}.
+     */
     @Override
+    public String dispatchOTPByEmail(String email, String name, String accountNumber, String otp) {
+        val deliveryId = UUID.randomUUID().toString();
+        val cache = cacheManager.getCache("otpDeliveries");
+        if (cache != null) {
+            cache.put(deliveryId, OtpDeliveryStatus.PENDING);
+        }
+
+        sendOTPByEmail(email, name, accountNumber, otp).whenComplete((result, e) -> {
+            if (cache != null) {
+                cache.put(deliveryId, e == null ? OtpDeliveryStatus.SENT : OtpDeliveryStatus.FAILED);
+            }
+        });
+
+        return deliveryId;
+    }
+
+    @Override
+    public OtpDeliveryStatus getDeliveryStatus(String deliveryId) {
+        val cache = cacheManager.getCache("otpDeliveries");
+        val status = cache != null ? cache.get(deliveryId, OtpDeliveryStatus.class) : null;
+        if (status == null) {
+            throw new NotFoundException(String.format(ApiMessages.OTP_DELIVERY_NOT_FOUND.getMessage(), deliveryId));
+        }
+
+        return status;
+    }
+
+    @Override
+    @Transactional
     public boolean validateOTP(String accountNumber, String otp) {
         val otpInfo = otpInfoRepository.findByAccountNumberAndOtp(accountNumber, otp);
         if (otpInfo == null) {
@@ -0,0 +1,12 @@
+package com.webapp.bankingportal.service;
+
+import com.webapp.bankingportal.entity.Account;
+import com.webapp.bankingportal.entity.Transaction;
+
+public interface PostingService {
+
+    public void recordPosting(Account account, Transaction transaction, double amount, Account counterparty);
+
+    public void backfillPostings();
+
+}
@@ -0,0 +1,203 @@
+package com.webapp.bankingportal.service;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.bankingportal.entity.Account;
+import com.webapp.bankingportal.entity.Posting;
+import com.webapp.bankingportal.entity.PostingBackfillCheckpoint;
+import com.webapp.bankingportal.entity.Transaction;
+import com.webapp.bankingportal.entity.TransactionType;
+import com.webapp.bankingportal.repository.AccountRepository;
+import com.webapp.bankingportal.repository.PostingBackfillCheckpointRepository;
+import com.webapp.bankingportal.repository.PostingRepository;
+import com.webapp.bankingportal.repository.TransactionRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PostingServiceImpl implements PostingService {
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private record BackfillBatch(long lastTransactionId, long postings) {
+    }
+
+    private final AccountRepository accountRepository;
+    private final AccountSummaryService accountSummaryService;
+    private final PostingBackfillCheckpointRepository checkpointRepository;
+    private final PostingRepository postingRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Appends a posting to the account's history and adds it to the account's
+     * monthly summary. Must run in the same transaction as the balance update,
+     * after the new balance has been set, on an account whose row that
+     * transaction has locked; otherwise two movements can take the same seq.
+     */
+    @Override
+    public void recordPosting(Account account, Transaction transaction, double amount, Account counterparty) {
+        account.setLastPostingSeq(account.getLastPostingSeq() + 1);
+        account.setRevision(account.getRevision() + 1);
+        val posting = postingRepository.save(new Posting(account, transaction, amount, counterparty));
+        accountSummaryService.recordPosting(posting);
+    }
+
+    /**
+     * Builds postings for transactions recorded before the posting table
+     * existed. Starts when the table is still empty and runs until the
+     * checkpoint is completed, resuming after a restart.
+     *
+     * Each batch is a transaction of its own that locks the checkpoint first,
+     * so concurrent instances serialize batch by batch and always continue
+     * from the committed checkpoint. The persistence context of a batch is
+     * discarded when it commits.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPostings() {
+        if (!startBackfill()) {
+            return;
+        }
+
+        log.info("Backfilling postings from existing transactions");
+
+        // Accounts start with a zero balance, so replaying every movement in
+        // order reproduces the running balance after each posting
+        val accounts = new HashMap<Long, Account>();
+        var lastTransactionId = -1L;
+        var count = 0L;
+
+        while (true) {
+            val previousTransactionId = lastTransactionId;
+            val batch = transactionTemplate.execute(status -> backfillBatch(accounts, previousTransactionId));
+            if (batch == null) {
+                break;
+            }
+
+            lastTransactionId = batch.lastTransactionId();
+            count += batch.postings();
+        }
+
+        log.info("Backfilled {} postings", count);
+    }
+
+    // Whether a backfill is pending, creating its checkpoint when it is new
+    private boolean startBackfill() {
+        val checkpoint = checkpointRepository.findById(PostingBackfillCheckpoint.ID);
+        if (checkpoint.isPresent()) {
+            return !checkpoint.get().isCompleted();
+        }
+
+        if (postingRepository.count() > 0 || transactionRepository.count() == 0) {
+            return false;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> checkpointRepository.saveAndFlush(new PostingBackfillCheckpoint()));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created it first; the batches take turns on it
+        }
+
+        return true;
+    }
+
+    /**
+     * Replays the next batch of transactions after the checkpoint. Returns
+     * null once the backfill is complete.
+     */
+    private BackfillBatch backfillBatch(Map<Long, Account> accounts, long previousTransactionId) {
+        val checkpoint = checkpointRepository.findByIdForUpdate(PostingBackfillCheckpoint.ID).orElse(null);
+        if (checkpoint == null || checkpoint.isCompleted()) {
+            return null;
+        }
+
+        // Another instance wrote the previous batch, so the running state kept here is outdated
+        if (checkpoint.getLastTransactionId() != previousTransactionId) {
+            accounts.clear();
+        }
+
+        val transactions = transactionRepository.findByIdGreaterThanOrderByIdAsc(
+                checkpoint.getLastTransactionId(), PageRequest.of(0, BACKFILL_BATCH_SIZE));
+        if (transactions.isEmpty()) {
+            checkpoint.setCompleted(true);
+            checkpoint.setUpdatedAt(new Date());
+            return null;
+        }
+
+        val touchedIds = new HashSet<Long>();
+        var count = 0L;
+
+        for (val transaction : transactions) {
+            val source = accounts.computeIfAbsent(transaction.getSourceAccount().getId(),
+                    id -> loadPostingState(transaction.getSourceAccount()));
+            val amount = transaction.getAmount();
+
+            if (transaction.getTransactionType() == TransactionType.CASH_TRANSFER) {
+                val target = accounts.computeIfAbsent(transaction.getTargetAccount().getId(),
+                        id -> loadPostingState(transaction.getTargetAccount()));
+                replay(source, transaction, -amount, target);
+                replay(target, transaction, amount, source);
+                touchedIds.add(target.getId());
+                count += 2;
+
+            } else {
+                val signedAmount = transaction.getTransactionType() == TransactionType.CASH_WITHDRAWAL
+                        ? -amount
+                        : amount;
+                replay(source, transaction, signedAmount, null);
+                count++;
+            }
+
+            touchedIds.add(source.getId());
+        }
+
+        // Only the sequence counters are kept; balances are restored from the database
+        touchedIds.forEach(id -> accountRepository.updateLastPostingSeq(id, accounts.get(id).getLastPostingSeq()));
+
+        val lastTransactionId = transactions.get(transactions.size() - 1).getId();
+        checkpoint.setLastTransactionId(lastTransactionId);
+        checkpoint.setPostingsCreated(checkpoint.getPostingsCreated() + count);
+        checkpoint.setUpdatedAt(new Date());
+        return new BackfillBatch(lastTransactionId, count);
+    }
+
+    private void replay(Account account, Transaction transaction, double amount, Account counterparty) {
+        account.setBalance(account.getBalance() + amount);
+        recordPosting(account, transaction, amount, counterparty);
+    }
+
+    // Works on a detached copy, so replayed balances are never flushed. An
+    // account replayed by an earlier batch continues from its latest posting.
+    private Account loadPostingState(Account managedAccount) {
+        val account = new Account();
+        account.setId(managedAccount.getId());
+        account.setAccountNumber(managedAccount.getAccountNumber());
+        account.setBalance(0.0);
+        account.setLastPostingSeq(0);
+
+        postingRepository.findByAccountIdOrderBySeqDesc(account.getId(), PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .ifPresent(posting -> {
+                    account.setBalance(posting.getBalanceAfter());
+                    account.setLastPostingSeq(posting.getSeq());
+                });
+        return account;
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.webapp.bankingportal.service;
+
+import java.time.YearMonth;
+
+import com.webapp.bankingportal.dto.StatementRunReport;
+
+public interface StatementService {
+
+    public StatementRunReport sendMonthlyStatements(YearMonth month);
+
+    public void sendLastMonthStatements();
+
+}
@@ -0,0 +1,452 @@
+package com.webapp.bankingportal.service;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.bankingportal.dto.StatementRecipient;
+import com.webapp.bankingportal.dto.StatementRunReport;
+import com.webapp.bankingportal.dto.StatementStageReport;
+import com.webapp.bankingportal.entity.StatementDelivery;
+import com.webapp.bankingportal.repository.AccountRepository;
+import com.webapp.bankingportal.repository.PostingRepository;
+import com.webapp.bankingportal.repository.StatementDeliveryRepository;
+import com.webapp.bankingportal.util.SpillingBuffer;
+
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Emails every account its monthly statement: an HTML summary in the body and
+ * the month's transactions as a CSV attachment.
+ *
+ * The run is a pipeline. The calling thread pages through accounts that have
+ * not received the month's statement yet and feeds a bounded pool of
+ * generators. Each generator streams the account's postings for the month
+ * through a cursor and renders the CSV into one of a fixed set of reusable
+ * {@link SpillingBuffer}s, which only fall back to a temporary file for very
+ * large statements. Rendered statements are queued for a few senders that
+ * share one send rate. Both queues are bounded, so a slow mail server slows
+ * generation down instead of filling the heap.
+ *
+ * The job runs on every instance. A generator first claims the account's
+ * statement by inserting a PENDING {@link StatementDelivery} in a transaction
+ * of its own, and skips the account if another instance got there first. The
+ * claim becomes SENT once the mail server has accepted the statement and is
+ * released if generating or sending fails, so a failed or interrupted run is
+ * resumed by running it again. Claims older than statement.claim-timeout are
+ * taken to be left over from a crashed instance and can be taken over.
+ */
+@Service
+@Slf4j
+public class StatementServiceImpl implements StatementService {
+
+    private static final String CSV_HEADER = "Date,Transaction ID,Type,Counterparty,Amount,Balance\n";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.ENGLISH);
+    private static final int BUFFER_INITIAL_CAPACITY = 16 * 1024;
+
+    private record Statement(StatementRecipient recipient, String body, SpillingBuffer.Content attachment) {
+    }
+
+    private static final Statement END_OF_RUN = new Statement(null, null, null);
+
+    private static final class Stage {
+
+        private final String name;
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private volatile long finishedNanos;
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        void succeeded(long beginNanos) {
+            processed.incrementAndGet();
+            busyNanos.addAndGet(System.nanoTime() - beginNanos);
+        }
+
+        void failed(long beginNanos) {
+            failed.incrementAndGet();
+            busyNanos.addAndGet(System.nanoTime() - beginNanos);
+        }
+
+        void finish() {
+            finishedNanos = System.nanoTime();
+        }
+
+        StatementStageReport report(long startedNanos) {
+            return new StatementStageReport(name, processed.get(), failed.get(),
+                    TimeUnit.NANOSECONDS.toMillis(finishedNanos - startedNanos),
+                    TimeUnit.NANOSECONDS.toMillis(busyNanos.get()));
+        }
+    }
+
+    private final AccountRepository accountRepository;
+    private final PostingRepository postingRepository;
+    private final StatementDeliveryRepository statementDeliveryRepository;
+    private final EmailService emailService;
+    private final Clock clock;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final int workers;
+    private final int senders;
+    private final long sendIntervalNanos;
+    private final int queueCapacity;
+    private final int spillThreshold;
+    private final int pageSize;
+    private final Duration claimTimeout;
+
+    public StatementServiceImpl(AccountRepository accountRepository, PostingRepository postingRepository,
+            StatementDeliveryRepository statementDeliveryRepository, EmailService emailService,
+            PlatformTransactionManager transactionManager, Clock clock,
+            @Value("${statement.enabled:true}") boolean enabled,
+            @Value("${statement.workers:4}") int workers,
+            @Value("${statement.mail.senders:2}") int senders,
+            @Value("${statement.mail.rate-per-second:10}") double ratePerSecond,
+            @Value("${statement.queue-capacity:100}") int queueCapacity,
+            @Value("${statement.spill-threshold:1048576}") int spillThreshold,
+            @Value("${statement.page-size:500}") int pageSize,
+            @Value("${statement.claim-timeout:1h}") Duration claimTimeout) {
+        this.accountRepository = accountRepository;
+        this.postingRepository = postingRepository;
+        this.statementDeliveryRepository = statementDeliveryRepository;
+        this.emailService = emailService;
+        this.clock = clock;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.workers = workers;
+        this.senders = senders;
+        this.sendIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        this.queueCapacity = queueCapacity;
+        this.spillThreshold = spillThreshold;
+        this.pageSize = pageSize;
+        this.claimTimeout = claimTimeout;
+    }
+
+    @Override
+    @Scheduled(cron = "${statement.cron:0 0 6 1 * *}", zone = "${calendar.zone:}")
+    public void sendLastMonthStatements() {
+        if (enabled) {
+            sendMonthlyStatements(YearMonth.now(clock).minusMonths(1));
+        }
+    }
+
+    @Override
+    public StatementRunReport sendMonthlyStatements(YearMonth month) {
+        val started = System.nanoTime();
+        val generation = new Stage("generate");
+        val delivery = new Stage("deliver");
+        val spilled = new AtomicLong();
+        val claimedElsewhere = new AtomicLong();
+
+        val buffers = new ArrayBlockingQueue<SpillingBuffer>(workers + 1);
+        for (var i = 0; i <= workers; i++) {
+            // One more than the pool size, for the caller when the work queue is full
+            buffers.add(new SpillingBuffer(BUFFER_INITIAL_CAPACITY, spillThreshold, "statement-"));
+        }
+
+        val outbox = new ArrayBlockingQueue<Statement>(queueCapacity);
+        val nextSendSlot = new AtomicLong(System.nanoTime());
+        val dispatchers = Executors.newFixedThreadPool(senders);
+        for (var i = 0; i < senders; i++) {
+            dispatchers.execute(() -> dispatch(month, outbox, nextSendSlot, delivery));
+        }
+
+        val generators = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+
+        log.info("Sending statements for {}", month);
+        try {
+            var afterId = 0L;
+            while (!Thread.currentThread().isInterrupted()) {
+                val recipients = accountRepository.findStatementRecipients(month.toString(), staleClaimsBefore(),
+                        afterId, PageRequest.of(0, pageSize));
+                if (recipients.isEmpty()) {
+                    break;
+                }
+
+                for (val recipient : recipients) {
+                    generators.execute(() -> generate(recipient, month, buffers, outbox, generation, spilled,
+                            claimedElsewhere));
+                }
+                afterId = recipients.get(recipients.size() - 1).accountId();
+            }
+
+        } finally {
+            awaitTermination(generators);
+            generation.finish();
+
+            for (var i = 0; i < senders; i++) {
+                enqueue(outbox, END_OF_RUN);
+            }
+            awaitTermination(dispatchers);
+            delivery.finish();
+        }
+
+        if (claimedElsewhere.get() > 0) {
+            log.info("Statements for {}: {} claimed by another instance", month, claimedElsewhere.get());
+        }
+
+        val report = new StatementRunReport(month,
+                List.of(generation.report(started), delivery.report(started)), spilled.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        report.stages().forEach(stage -> log.info(
+                "Statements for {}, {} stage: {} processed, {} failed in {} ms ({} per second, {} ms busy)",
+                month, stage.stage(), stage.processed(), stage.failed(), stage.elapsedMillis(),
+                String.format("%.1f", stage.processedPerSecond()), stage.busyMillis()));
+        return report;
+    }
+
+    private void generate(StatementRecipient recipient, YearMonth month, BlockingQueue<SpillingBuffer> buffers,
+            BlockingQueue<Statement> outbox, Stage generation, AtomicLong spilled, AtomicLong claimedElsewhere) {
+
+        if (!claim(month, recipient.accountId())) {
+            claimedElsewhere.incrementAndGet();
+            return;
+        }
+
+        SpillingBuffer buffer;
+        try {
+            buffer = buffers.take();
+        } catch (InterruptedException e) {
+            releaseClaim(month, recipient.accountId());
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        val begin = System.nanoTime();
+        try {
+            val statement = readOnlyTransaction.execute(status -> render(recipient, month, buffer));
+            generation.succeeded(begin);
+            if (statement.attachment().spilled()) {
+                spilled.incrementAndGet();
+            }
+
+            if (!enqueue(outbox, statement)) {
+                statement.attachment().discard();
+                releaseClaim(month, recipient.accountId());
+            }
+
+        } catch (RuntimeException e) {
+            generation.failed(begin);
+            releaseClaim(month, recipient.accountId());
+            log.warn("Failed to generate the {} statement of account {}", month, recipient.accountNumber(), e);
+
+        } finally {
+            buffer.reset();
+            buffers.add(buffer);
+        }
+    }
+
+    private Statement render(StatementRecipient recipient, YearMonth month, SpillingBuffer buffer) {
+        val zone = clock.getZone();
+        val from = toDate(month.atDay(1), zone);
+        val to = toDate(month.plusMonths(1).atDay(1), zone);
+
+        val openingBalance = openingBalance(recipient.accountId(), from);
+        var balance = BigDecimal.valueOf(openingBalance);
+        var count = 0L;
+
+        try {
+            // Not closed: closing the writer would close, and so clear, the buffer
+            val writer = new OutputStreamWriter(buffer, StandardCharsets.UTF_8);
+            writer.write(CSV_HEADER);
+
+            try (val lines = postingRepository.streamStatementLines(recipient.accountId(), from, to)) {
+                val iterator = lines.iterator();
+                while (iterator.hasNext()) {
+                    val line = iterator.next();
+                    balance = balance.add(BigDecimal.valueOf(line.amount()));
+                    count++;
+
+                    writer.write(DATE_FORMAT.format(line.transactionDate().toInstant().atZone(zone)));
+                    writer.write(',');
+                    writer.write(String.valueOf(line.transactionId()));
+                    writer.write(',');
+                    writer.write(line.transactionType().name());
+                    writer.write(',');
+                    if (line.counterpartyAccountNumber() != null) {
+                        writer.write(line.counterpartyAccountNumber());
+                    }
+                    writer.write(',');
+                    writer.write(String.format("%.2f", line.amount()));
+                    writer.write(',');
+                    writer.write(balance.setScale(2, RoundingMode.HALF_EVEN).toPlainString());
+                    writer.write('\n');
+                }
+            }
+
+            writer.flush();
+            val body = emailService.getStatementEmailTemplate(recipient.name(), recipient.accountNumber(),
+                    PERIOD_FORMAT.format(month), openingBalance, balance.doubleValue(), count);
+            return new Statement(recipient, body, buffer.detach());
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void dispatch(YearMonth month, BlockingQueue<Statement> outbox, AtomicLong nextSendSlot,
+            Stage delivery) {
+
+        val subject = "Your OneStopBank statement for " + PERIOD_FORMAT.format(month);
+        while (true) {
+            Statement statement = null;
+            try {
+                statement = outbox.take();
+                if (statement == END_OF_RUN) {
+                    return;
+                }
+                awaitSendSlot(nextSendSlot);
+
+            } catch (InterruptedException e) {
+                if (statement != null) {
+                    statement.attachment().discard();
+                    releaseClaim(month, statement.recipient().accountId());
+                }
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            val recipient = statement.recipient();
+            val begin = System.nanoTime();
+            var sent = false;
+            try {
+                emailService.sendEmailWithAttachment(recipient.email(), subject, statement.body(),
+                        "statement-" + recipient.accountNumber() + "-" + month + ".csv", statement.attachment());
+                sent = true;
+                markSent(month, recipient.accountId());
+                delivery.succeeded(begin);
+
+            } catch (RuntimeException e) {
+                delivery.failed(begin);
+                if (sent) {
+                    // The claim stays PENDING, so the statement is not sent again before it goes stale
+                    log.warn("Sent the {} statement of account {} but failed to record it", month,
+                            recipient.accountNumber(), e);
+                } else {
+                    releaseClaim(month, recipient.accountId());
+                    log.warn("Failed to send the {} statement of account {}", month, recipient.accountNumber(), e);
+                }
+
+            } finally {
+                statement.attachment().discard();
+            }
+        }
+    }
+
+    /** Shares one send rate between all senders by handing out evenly spaced time slots. */
+    private void awaitSendSlot(AtomicLong nextSendSlot) throws InterruptedException {
+        val now = System.nanoTime();
+        val previous = nextSendSlot.getAndAccumulate(now, (next, time) -> Math.max(next, time) + sendIntervalNanos);
+        TimeUnit.NANOSECONDS.sleep(Math.max(previous, now) - now);
+    }
+
+    /**
+     * Claims the account's statement for this instance, in a transaction of
+     * its own so other instances see the claim straight away.
+     */
+    private boolean claim(YearMonth month, Long accountId) {
+        try {
+            transaction.executeWithoutResult(status -> statementDeliveryRepository
+                    .saveAndFlush(new StatementDelivery(month.toString(), accountId)));
+            return true;
+
+        } catch (DataIntegrityViolationException e) {
+            val reclaimed = transaction.execute(status -> statementDeliveryRepository
+                    .reclaimStale(month.toString(), accountId, new Date(), staleClaimsBefore()));
+            return reclaimed != null && reclaimed > 0;
+        }
+    }
+
+    private void markSent(YearMonth month, Long accountId) {
+        transaction.executeWithoutResult(status -> statementDeliveryRepository
+                .markSent(month.toString(), accountId, new Date()));
+    }
+
+    private void releaseClaim(YearMonth month, Long accountId) {
+        try {
+            transaction.executeWithoutResult(status -> statementDeliveryRepository
+                    .releaseClaim(month.toString(), accountId));
+        } catch (RuntimeException e) {
+            log.warn("Failed to release the {} statement claim of account {}; it is retried once stale",
+                    month, accountId, e);
+        }
+    }
+
+    private Date staleClaimsBefore() {
+        return new Date(System.currentTimeMillis() - claimTimeout.toMillis());
+    }
+
+    private static boolean enqueue(BlockingQueue<Statement> queue, Statement statement) {
+        try {
+            queue.put(statement);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double openingBalance(Long accountId, Date from) {
+        val latest = postingRepository.findLatestBefore(accountId, from, PageRequest.of(0, 1));
+        if (latest.isEmpty()) {
+            return 0.0;
+        }
+
+        // A back-dated posting's balance includes the later-dated postings sequenced before it
+        val posting = latest.get(0);
+        return BigDecimal.valueOf(posting.getBalanceAfter())
+                .subtract(BigDecimal.valueOf(postingRepository.sumAmountsFromBeforeSeq(accountId, from, posting.getSeq())))
+                .doubleValue();
+    }
+
+    private static Date toDate(LocalDate date, ZoneId zone) {
+        return Date.from(date.atStartOfDay(zone).toInstant());
+    }
+
+}
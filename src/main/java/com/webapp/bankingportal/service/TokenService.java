@@ -3,18 +3,17 @@ package com.webapp.bankingportal.service;
 import java.util.Date;
 import java.util.function.Function;
 
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-
+import com.webapp.bankingportal.entity.Account;
+import com.webapp.bankingportal.entity.RefreshToken;
 import com.webapp.bankingportal.exception.InvalidTokenException;
 
 import io.jsonwebtoken.Claims;
 
-public interface TokenService extends UserDetailsService {
+public interface TokenService {
 
-    public String generateToken(UserDetails userDetails);
+    public String generateToken(String accountNumber);
 
-    public String generateToken(UserDetails userDetails, Date expiry);
+    public String generateToken(String accountNumber, Date expiry);
 
     public String getUsernameFromToken(String token) throws InvalidTokenException;
 
@@ -23,9 +22,13 @@ public interface TokenService extends UserDetailsService {
     public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver)
             throws InvalidTokenException;
 
-    public void saveToken(String token) throws InvalidTokenException;
-
     public void validateToken(String token) throws InvalidTokenException;
 
-    public void invalidateToken(String token);
+    public RefreshToken createRefreshToken(Account account);
+
+    public RefreshToken rotateRefreshToken(String refreshToken) throws InvalidTokenException;
+
+    public void revokeRefreshTokens(String accountNumber);
+
+    public void purgeExpiredRefreshTokens();
 }
@@ -1,22 +1,21 @@
 package com.webapp.bankingportal.service;
 
-import static org.springframework.security.core.userdetails.User.withUsername;
-
+import java.security.SecureRandom;
+import java.util.Base64;
 import java.util.Date;
 import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.webapp.bankingportal.entity.Token;
+import com.webapp.bankingportal.entity.Account;
+import com.webapp.bankingportal.entity.RefreshToken;
 import com.webapp.bankingportal.exception.InvalidTokenException;
-import com.webapp.bankingportal.repository.AccountRepository;
-import com.webapp.bankingportal.repository.TokenRepository;
-import com.webapp.bankingportal.repository.UserRepository;
+import com.webapp.bankingportal.repository.RefreshTokenRepository;
 import com.webapp.bankingportal.util.ApiMessages;
+import com.webapp.bankingportal.util.DigestUtil;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
@@ -35,15 +34,19 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class TokenServiceImpl implements TokenService {
 
+    private static final int REFRESH_TOKEN_BYTES = 32;
+    private static final SecureRandom secureRandom = new SecureRandom();
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private long expiration;
 
-    private final UserRepository userRepository;
-    private final TokenRepository tokenRepository;
-    private final AccountRepository accountRepository;
+    @Value("${jwt.refresh-expiration:604800000}")
+    private long refreshExpiration;
+
+    private final RefreshTokenRepository refreshTokenRepository;
 
     @Override
     public String getUsernameFromToken(String token) throws InvalidTokenException {
@@ -51,34 +54,25 @@ public class TokenServiceImpl implements TokenService {
     }
 
     @Override
-    public String generateToken(UserDetails userDetails) {
-        log.info("Generating token for user: " + userDetails.getUsername());
-        return doGenerateToken(userDetails,
+    public String generateToken(String accountNumber) {
+        log.info("Generating token for user: " + accountNumber);
+        return doGenerateToken(accountNumber,
                 new Date(System.currentTimeMillis() + expiration));
     }
 
     @Override
-    public String generateToken(UserDetails userDetails, Date expiry) {
-        log.info("Generating token for user: " + userDetails.getUsername());
-        return doGenerateToken(userDetails, expiry);
+    public String generateToken(String accountNumber, Date expiry) {
+        log.info("Generating token for user: " + accountNumber);
+        return doGenerateToken(accountNumber, expiry);
     }
 
-    private String doGenerateToken(UserDetails userDetails, Date expiry) {
-        return Jwts.builder().setSubject(userDetails.getUsername())
+    private String doGenerateToken(String accountNumber, Date expiry) {
+        return Jwts.builder().setSubject(accountNumber)
                 .setIssuedAt(new Date())
                 .setExpiration(expiry)
                 .signWith(SignatureAlgorithm.HS512, secret).compact();
     }
 
-    @Override
-    public UserDetails loadUserByUsername(String accountNumber) throws UsernameNotFoundException {
-        val user = userRepository.findByAccountAccountNumber(accountNumber)
-                .orElseThrow(() -> new UsernameNotFoundException(
-                        String.format(ApiMessages.USER_NOT_FOUND_BY_ACCOUNT.getMessage(), accountNumber)));
-
-        return withUsername(accountNumber).password(user.getPassword()).build();
-    }
-
     @Override
     public Date getExpirationDateFromToken(String token)
             throws InvalidTokenException {
@@ -97,9 +91,6 @@ public class TokenServiceImpl implements TokenService {
             return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
 
         } catch (ExpiredJwtException e) {
-            // Delete expired token
-            invalidateToken(token);
-
             throw new InvalidTokenException(ApiMessages.TOKEN_EXPIRED_ERROR.getMessage());
 
         } catch (UnsupportedJwtException e) {
@@ -116,37 +107,80 @@ public class TokenServiceImpl implements TokenService {
         }
     }
 
+    /**
+     * Access tokens are short-lived and never persisted, so a valid signature
+     * and an unexpired claim set are all that is checked per request.
+     */
     @Override
-    public void saveToken(String token) throws InvalidTokenException {
-        if (tokenRepository.findByToken(token) != null) {
-            throw new InvalidTokenException(ApiMessages.TOKEN_ALREADY_EXISTS_ERROR.getMessage());
-        }
-
-        val account = accountRepository.findByAccountNumber(
-                getUsernameFromToken(token));
+    public void validateToken(String token) throws InvalidTokenException {
+        getAllClaimsFromToken(token);
+    }
 
-        log.info("Saving token for account: " + account.getAccountNumber());
+    @Override
+    public RefreshToken createRefreshToken(Account account) {
+        val bytes = new byte[REFRESH_TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
 
-        val tokenObj = new Token(
-                token,
-                getExpirationDateFromToken(token),
-                account);
+        val token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        val refreshToken = new RefreshToken(token, DigestUtil.sha256Hex(token),
+                new Date(System.currentTimeMillis() + refreshExpiration), account);
 
-        tokenRepository.save(tokenObj);
+        return refreshTokenRepository.save(refreshToken);
     }
 
+    /**
+     * Presenting a token that was already rotated means it was stolen or
+     * replayed, so every session of the account is revoked. The
+     * {@link InvalidTokenException} thrown then is checked and does not roll
+     * that revocation back. Of two concurrent rotations of the same token,
+     * the one that loses the compare-and-set is rejected.
+     */
     @Override
-    public void validateToken(String token) throws InvalidTokenException {
-        if (tokenRepository.findByToken(token) == null) {
+    @Transactional
+    public RefreshToken rotateRefreshToken(String refreshToken) throws InvalidTokenException {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            throw new InvalidTokenException(ApiMessages.TOKEN_EMPTY_ERROR.getMessage());
+        }
+
+        val existingToken = refreshTokenRepository.findByTokenHash(DigestUtil.sha256Hex(refreshToken));
+        if (existingToken == null) {
             throw new InvalidTokenException(ApiMessages.TOKEN_NOT_FOUND_ERROR.getMessage());
         }
+
+        val accountNumber = existingToken.getAccount().getAccountNumber();
+        if (existingToken.isRevoked()) {
+            log.warn("Revoked refresh token presented again; revoking all refresh tokens of account: {}",
+                    accountNumber);
+            refreshTokenRepository.deleteAllByAccountNumber(accountNumber);
+            throw new InvalidTokenException(ApiMessages.TOKEN_REUSED_ERROR.getMessage());
+        }
+
+        if (existingToken.isExpired()) {
+            throw new InvalidTokenException(ApiMessages.TOKEN_EXPIRED_ERROR.getMessage());
+        }
+
+        if (refreshTokenRepository.revoke(existingToken.getId(), new Date()) == 0) {
+            // Rotated or revoked by a concurrent request since it was read
+            throw new InvalidTokenException(ApiMessages.TOKEN_INVALID_ERROR.getMessage());
+        }
+
+        log.info("Rotating refresh token for account: " + accountNumber);
+        return createRefreshToken(existingToken.getAccount());
+    }
+
+    @Override
+    @Transactional
+    public void revokeRefreshTokens(String accountNumber) {
+        refreshTokenRepository.deleteAllByAccountNumber(accountNumber);
     }
 
     @Override
     @Transactional
-    public void invalidateToken(String token) {
-        if (tokenRepository.findByToken(token) != null) {
-            tokenRepository.deleteByToken(token);
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge-interval:3600000}")
+    public void purgeExpiredRefreshTokens() {
+        val purged = refreshTokenRepository.deleteAllExpiredBefore(new Date());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
         }
     }
 
@@ -3,9 +3,13 @@ package com.webapp.bankingportal.service;
 import java.util.List;
 
 import com.webapp.bankingportal.dto.TransactionDTO;
+import com.webapp.bankingportal.dto.TransactionPageResponse;
+import com.webapp.bankingportal.dto.TransactionSearchRequest;
 
 public interface TransactionService {
 
 	List<TransactionDTO> getAllTransactionsByAccountNumber(String accountNumber);
 
+	TransactionPageResponse searchTransactions(String accountNumber, TransactionSearchRequest searchRequest);
+
 }
@@ -1,13 +1,23 @@
 package com.webapp.bankingportal.service;
 
+import java.time.LocalDate;
+import java.time.Clock;
+import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Sort;
+
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.webapp.bankingportal.dto.TransactionDTO;
+import com.webapp.bankingportal.dto.TransactionPageResponse;
+import com.webapp.bankingportal.dto.TransactionSearchRequest;
 import com.webapp.bankingportal.mapper.TransactionMapper;
-import com.webapp.bankingportal.repository.TransactionRepository;
+import com.webapp.bankingportal.repository.PostingRepository;
+import com.webapp.bankingportal.repository.PostingSpecifications;
+import com.webapp.bankingportal.util.ApiMessages;
 
 import lombok.RequiredArgsConstructor;
 import lombok.val;
@@ -16,20 +26,110 @@ import lombok.val;
 @RequiredArgsConstructor
 public class TransactionServiceImpl implements TransactionService {
 
-    private final TransactionRepository transactionRepository;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final PostingRepository postingRepository;
     private final TransactionMapper transactionMapper;
+    private final Clock clock;
 
     @Override
+    @Transactional(readOnly = true)
     public List<TransactionDTO> getAllTransactionsByAccountNumber(String accountNumber) {
-        val transactions = transactionRepository
-                .findBySourceAccount_AccountNumberOrTargetAccount_AccountNumber(accountNumber, accountNumber);
+        // Postings come back newest first straight from the (account_id, seq) index
+        val postings = postingRepository.findHistoryByAccountNumber(accountNumber);
 
-        val transactionDTOs = transactions.parallelStream()
-                .map(transactionMapper::toDto)
-                .sorted((t1, t2) -> t2.getTransactionDate().compareTo(t1.getTransactionDate()))
+        val transactionDTOs = postings.stream()
+                .map(posting -> transactionMapper.toDto(posting, accountNumber))
                 .collect(Collectors.toList());
 
         return transactionDTOs;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionPageResponse searchTransactions(String accountNumber, TransactionSearchRequest searchRequest) {
+        val pageSize = validateSearchRequest(searchRequest);
+        val direction = searchRequest.sort() != null ? searchRequest.sort() : Sort.Direction.DESC;
+
+        var specification = PostingSpecifications.forAccount(accountNumber);
+
+        if (searchRequest.fromDate() != null) {
+            specification = specification.and(PostingSpecifications.after(toDate(searchRequest.fromDate())));
+        }
+        if (searchRequest.toDate() != null) {
+            // The date range is inclusive of the whole last day
+            specification = specification.and(
+                    PostingSpecifications.before(toDate(searchRequest.toDate().plusDays(1))));
+        }
+        if (searchRequest.type() != null) {
+            specification = specification.and(PostingSpecifications.ofType(searchRequest.type()));
+        }
+        if (searchRequest.counterparty() != null) {
+            specification = specification.and(PostingSpecifications.withCounterparty(searchRequest.counterparty()));
+        }
+        if (searchRequest.minAmount() != null) {
+            specification = specification.and(PostingSpecifications.amountAtLeast(searchRequest.minAmount()));
+        }
+        if (searchRequest.maxAmount() != null) {
+            specification = specification.and(PostingSpecifications.amountAtMost(searchRequest.maxAmount()));
+        }
+        if (searchRequest.cursor() != null) {
+            specification = specification.and(direction.isDescending()
+                    ? PostingSpecifications.seqBefore(searchRequest.cursor())
+                    : PostingSpecifications.seqAfter(searchRequest.cursor()));
+        }
+
+        // Fetch one extra row to learn whether another page follows
+        val postings = postingRepository.findSummaries(specification, direction, pageSize + 1);
+
+        val hasMore = postings.size() > pageSize;
+        val page = hasMore ? postings.subList(0, pageSize) : postings;
+        val nextCursor = hasMore ? page.get(page.size() - 1).seq() : null;
+
+        val transactionDTOs = page.stream()
+                .map(posting -> transactionMapper.toDto(posting, accountNumber))
+                .collect(Collectors.toList());
+
+        return new TransactionPageResponse(transactionDTOs, nextCursor);
+    }
+
+    /**
+     * Rejects filter combinations that no posting index can serve, so every
+     * accepted search is a bounded range scan within the caller's account.
+     *
+     * @return the page size to use
+     */
+    private static int validateSearchRequest(TransactionSearchRequest searchRequest) {
+        if (searchRequest.fromDate() != null && searchRequest.toDate() != null
+                && searchRequest.fromDate().isAfter(searchRequest.toDate())) {
+            throw new IllegalArgumentException(ApiMessages.TRANSACTION_SEARCH_DATE_RANGE_INVALID_ERROR.getMessage());
+        }
+
+        val minAmount = searchRequest.minAmount();
+        val maxAmount = searchRequest.maxAmount();
+        if ((minAmount != null && minAmount < 0) || (maxAmount != null && maxAmount < 0)
+                || (minAmount != null && maxAmount != null && minAmount > maxAmount)) {
+            throw new IllegalArgumentException(ApiMessages.TRANSACTION_SEARCH_AMOUNT_RANGE_INVALID_ERROR.getMessage());
+        }
+
+        val hasIndexedFilter = searchRequest.fromDate() != null || searchRequest.toDate() != null
+                || searchRequest.type() != null || searchRequest.counterparty() != null;
+        if ((minAmount != null || maxAmount != null) && !hasIndexedFilter) {
+            throw new IllegalArgumentException(ApiMessages.TRANSACTION_SEARCH_UNBOUNDED_ERROR.getMessage());
+        }
+
+        val size = searchRequest.size() != null ? searchRequest.size() : DEFAULT_PAGE_SIZE;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                    String.format(ApiMessages.TRANSACTION_SEARCH_PAGE_SIZE_INVALID_ERROR.getMessage(), MAX_PAGE_SIZE));
+        }
+
+        return size;
+    }
+
+    private Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(clock.getZone()).toInstant());
+    }
+
 }
@@ -4,8 +4,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.servlet.ModelAndView;
 
 import com.webapp.bankingportal.dto.LoginRequest;
+import com.webapp.bankingportal.dto.OtpDeliveryResponse;
+import com.webapp.bankingportal.dto.OtpQueuedResponse;
 import com.webapp.bankingportal.dto.OtpRequest;
 import com.webapp.bankingportal.dto.OtpVerificationRequest;
+import com.webapp.bankingportal.dto.RefreshTokenRequest;
+import com.webapp.bankingportal.dto.TokenResponse;
+import com.webapp.bankingportal.dto.UserResponse;
 import com.webapp.bankingportal.entity.User;
 import com.webapp.bankingportal.exception.InvalidTokenException;
 
@@ -13,22 +18,29 @@ import jakarta.servlet.http.HttpServletRequest;
 
 public interface UserService {
 
-    public ResponseEntity<String> registerUser(User user);
+    public ResponseEntity<UserResponse> registerUser(User user);
 
-    public ResponseEntity<String> login(LoginRequest loginRequest, HttpServletRequest request)
+    public ResponseEntity<TokenResponse> login(LoginRequest loginRequest, HttpServletRequest request)
             throws InvalidTokenException;
 
-    public ResponseEntity<String> generateOtp(OtpRequest otpRequest);
+    public ResponseEntity<OtpQueuedResponse> generateOtp(OtpRequest otpRequest);
 
-    public ResponseEntity<String> verifyOtpAndLogin(OtpVerificationRequest otpVerificationRequest)
+    public ResponseEntity<OtpDeliveryResponse> getOtpDeliveryStatus(String deliveryId);
+
+    public ResponseEntity<TokenResponse> verifyOtpAndLogin(OtpVerificationRequest otpVerificationRequest)
+            throws InvalidTokenException;
+
+    public ResponseEntity<TokenResponse> refreshToken(RefreshTokenRequest refreshTokenRequest)
             throws InvalidTokenException;
 
-    public ResponseEntity<String> updateUser(User user);
+    public ResponseEntity<UserResponse> updateUser(User user);
 
     public ModelAndView logout(String token) throws InvalidTokenException;
 
     public boolean resetPassword(User user, String newPassword);
 
+    public void rehashPassword(User user, String rawPassword);
+
     public User saveUser(User user);
 
     public User getUserByIdentifier(String identifier);
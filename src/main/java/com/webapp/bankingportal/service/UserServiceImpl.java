@@ -1,29 +1,46 @@
 package com.webapp.bankingportal.service;
 
 import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.servlet.ModelAndView;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.webapp.bankingportal.dto.LoginRequest;
+import com.webapp.bankingportal.dto.OtpDeliveryResponse;
+import com.webapp.bankingportal.dto.OtpQueuedResponse;
 import com.webapp.bankingportal.dto.OtpRequest;
 import com.webapp.bankingportal.dto.OtpVerificationRequest;
+import com.webapp.bankingportal.dto.RefreshTokenRequest;
+import com.webapp.bankingportal.dto.TokenResponse;
 import com.webapp.bankingportal.dto.UserResponse;
+import com.webapp.bankingportal.entity.Account;
 import com.webapp.bankingportal.entity.User;
 import com.webapp.bankingportal.exception.InvalidTokenException;
 import com.webapp.bankingportal.exception.PasswordResetException;
 import com.webapp.bankingportal.exception.UnauthorizedException;
 import com.webapp.bankingportal.exception.UserInvalidException;
 import com.webapp.bankingportal.mapper.UserMapper;
+import com.webapp.bankingportal.repository.AccountRepository;
 import com.webapp.bankingportal.repository.UserRepository;
-import com.webapp.bankingportal.util.JsonUtil;
+import com.webapp.bankingportal.security.LoginAuthenticationToken;
 import com.webapp.bankingportal.util.LoggedinUser;
 import com.webapp.bankingportal.util.ValidationUtil;
 import com.webapp.bankingportal.util.ApiMessages;
@@ -39,81 +56,157 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final int MAX_REGISTRATION_ATTEMPTS = 3;
+    private static final int MAX_CACHED_IDENTIFIERS = 50_000;
+
+    private final AccountRepository accountRepository;
     private final AccountService accountService;
     private final AuthenticationManager authenticationManager;
     private final EmailService emailService;
     private final GeolocationService geolocationService;
+    private final IdentifierFilterService identifierFilterService;
     private final OtpService otpService;
     private final PasswordEncoder passwordEncoder;
     private final TokenService tokenService;
-    private final UserDetailsService userDetailsService;
+    private final TransactionTemplate transactionTemplate;
     private final UserMapper userMapper;
     private final UserRepository userRepository;
-    private final ValidationUtil validationUtil;
+
+    // Identifier (email, account number or phone number) to user id
+    private final Cache<String, Long> userIdsByIdentifier = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_IDENTIFIERS)
+            .build();
+
+    // Unique index name to the column it covers; see loadUniqueKeyColumns()
+    private volatile Map<String, String> uniqueKeyColumns = Map.of(
+            User.EMAIL_CONSTRAINT, User.EMAIL_COLUMN,
+            User.PHONE_NUMBER_CONSTRAINT, User.PHONE_NUMBER_COLUMN,
+            Account.ACCOUNT_NUMBER_CONSTRAINT, Account.ACCOUNT_NUMBER_COLUMN);
 
     @Override
-    public ResponseEntity<String> registerUser(User user) {
-        validationUtil.validateNewUser(user);
+    public ResponseEntity<UserResponse> registerUser(User user) {
+        ValidationUtil.validateUserDetails(user);
         encodePassword(user);
         val savedUser = saveUserWithAccount(user);
-        return ResponseEntity.ok(JsonUtil.toJson(new UserResponse(savedUser)));
+        return ResponseEntity.ok(new UserResponse(savedUser));
     }
 
     @Override
-    public ResponseEntity<String> login(LoginRequest loginRequest, HttpServletRequest request)
+    public ResponseEntity<TokenResponse> login(LoginRequest loginRequest, HttpServletRequest request)
             throws InvalidTokenException {
-        val user = authenticateUser(loginRequest);
+        val user = authenticateUser(loginRequest.identifier(), loginRequest.password());
         sendLoginNotification(user, request.getRemoteAddr());
-        val token = generateAndSaveToken(user.getAccount().getAccountNumber());
-        return ResponseEntity.ok(String.format(ApiMessages.TOKEN_ISSUED_SUCCESS.getMessage(), token));
+        return ResponseEntity.ok(issueTokens(user.getAccount()));
     }
 
     @Override
-    public ResponseEntity<String> generateOtp(OtpRequest otpRequest) {
+    public ResponseEntity<OtpQueuedResponse> generateOtp(OtpRequest otpRequest) {
         val user = getUserByIdentifier(otpRequest.identifier());
         val otp = otpService.generateOTP(user.getAccount().getAccountNumber());
         return sendOtpEmail(user, otp);
     }
 
     @Override
-    public ResponseEntity<String> verifyOtpAndLogin(OtpVerificationRequest otpVerificationRequest)
+    public ResponseEntity<OtpDeliveryResponse> getOtpDeliveryStatus(String deliveryId) {
+        val status = otpService.getDeliveryStatus(deliveryId);
+        return ResponseEntity.ok(new OtpDeliveryResponse(deliveryId, status));
+    }
+
+    @Override
+    public ResponseEntity<TokenResponse> verifyOtpAndLogin(OtpVerificationRequest otpVerificationRequest)
             throws InvalidTokenException {
         validateOtpRequest(otpVerificationRequest);
         val user = getUserByIdentifier(otpVerificationRequest.identifier());
         validateOtp(user, otpVerificationRequest.otp());
-        val token = generateAndSaveToken(user.getAccount().getAccountNumber());
-        return ResponseEntity.ok(String.format(ApiMessages.TOKEN_ISSUED_SUCCESS.getMessage(), token));
+        return ResponseEntity.ok(issueTokens(user.getAccount()));
     }
 
     @Override
-    public ResponseEntity<String> updateUser(User updatedUser) {
+    public ResponseEntity<TokenResponse> refreshToken(RefreshTokenRequest refreshTokenRequest)
+            throws InvalidTokenException {
+        val refreshToken = tokenService.rotateRefreshToken(refreshTokenRequest.refreshToken());
+        val accountNumber = refreshToken.getAccount().getAccountNumber();
+        val token = tokenService.generateToken(accountNumber);
+        return ResponseEntity.ok(new TokenResponse(token, refreshToken.getToken()));
+    }
+
+    /**
+     * Checks the password before the transaction starts, so the password hash
+     * comparison does not hold a database connection. The account row is
+     * locked before anything else loads it, so bumping its revision writes
+     * back the current balance and posting sequence rather than stale ones.
+     */
+    @Override
+    public ResponseEntity<UserResponse> updateUser(User updatedUser) {
         val accountNumber = LoggedinUser.getAccountNumber();
         authenticateUser(accountNumber, updatedUser.getPassword());
-        val existingUser = getUserByAccountNumber(accountNumber);
-        updateUserDetails(existingUser, updatedUser);
-        val savedUser = saveUser(existingUser);
-        return ResponseEntity.ok(JsonUtil.toJson(new UserResponse(savedUser)));
+        val savedUser = transactionTemplate.execute(status -> {
+            lockAccount(accountNumber);
+            val existingUser = getUserByAccountNumber(accountNumber);
+            val previousIdentifiers = List.of(existingUser.getEmail(), existingUser.getPhoneNumber());
+            updateUserDetails(existingUser, updatedUser);
+            existingUser.getAccount().setRevision(existingUser.getAccount().getRevision() + 1);
+            val user = saveAndFlushUser(existingUser);
+            identifierFilterService.register(user);
+            userIdsByIdentifier.invalidateAll(previousIdentifiers);
+            return user;
+        });
+
+        return ResponseEntity.ok(new UserResponse(savedUser));
     }
 
+    /**
+     * Also revokes the account's refresh tokens in the same transaction, so
+     * sessions opened with the old password cannot outlive it. The new
+     * password is hashed before the transaction.
+     */
     @Override
-    @Transactional
     public boolean resetPassword(User user, String newPassword) {
+        val encodedPassword = passwordEncoder.encode(newPassword);
         try {
-            user.setPassword(passwordEncoder.encode(newPassword));
-            userRepository.save(user);
-            return true;
-        } catch (Exception e) {
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.findById(user.getId())
+                        .ifPresent(managedUser -> managedUser.setPassword(encodedPassword));
+                tokenService.revokeRefreshTokens(user.getAccount().getAccountNumber());
+            });
+        } catch (RuntimeException e) {
             throw new PasswordResetException(ApiMessages.PASSWORD_RESET_FAILURE.getMessage(), e);
         }
+
+        user.setPassword(encodedPassword);
+        return true;
+    }
+
+    /**
+     * Stores a new hash of a password that was just verified. The hash is
+     * computed before the transaction and only replaces the hash that was
+     * verified, so a password reset or change in the meantime wins. A failure
+     * is logged and leaves the old hash in place, since it still matches.
+     */
+    @Override
+    public void rehashPassword(User user, String rawPassword) {
+        val verifiedPassword = user.getPassword();
+        val encodedPassword = passwordEncoder.encode(rawPassword);
+        try {
+            val updated = transactionTemplate.execute(status -> userRepository
+                    .updatePasswordIfUnchanged(user.getId(), verifiedPassword, encodedPassword));
+            if (updated == 1) {
+                user.setPassword(encodedPassword);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not rehash the password of user {}", user.getId(), e);
+        }
     }
 
     @Override
     public ModelAndView logout(String token) throws InvalidTokenException {
         token = token.substring(7);
         tokenService.validateToken(token);
-        tokenService.invalidateToken(token);
 
-        log.info("User logged out successfully {}", tokenService.getUsernameFromToken(token));
+        val accountNumber = tokenService.getUsernameFromToken(token);
+        tokenService.revokeRefreshTokens(accountNumber);
+
+        log.info("User logged out successfully {}", accountNumber);
 
         return new ModelAndView("redirect:/logout");
     }
@@ -123,30 +216,83 @@ public class UserServiceImpl implements UserService {
         return userRepository.save(user);
     }
 
+    /**
+     * Resolves an email, account number or phone number with a single query.
+     * The identifier is classified by its shape, and identifiers seen before
+     * are mapped to the user id so they resolve by primary key instead.
+     * Identifiers recently confirmed unknown are rejected without a query.
+     */
     @Override
+    @Transactional(readOnly = true)
     public User getUserByIdentifier(String identifier) {
-        User user = null;
+        if (identifier == null || identifier.isEmpty()) {
+            throw userNotFoundByIdentifier(identifier);
+        }
 
-        if (validationUtil.doesEmailExist(identifier)) {
-            user = getUserByEmail(identifier);
-        } else if (validationUtil.doesAccountExist(identifier)) {
-            user = getUserByAccountNumber(identifier);
-        } else {
-            throw new UserInvalidException(
-                    String.format(ApiMessages.USER_NOT_FOUND_BY_IDENTIFIER.getMessage(), identifier));
+        val userId = userIdsByIdentifier.getIfPresent(identifier);
+        if (userId != null) {
+            // Another instance may have changed the user's email or phone number
+            val cachedUser = userRepository.findWithAccountById(userId).filter(user -> matchesIdentifier(user, identifier));
+            if (cachedUser.isPresent()) {
+                return cachedUser.get();
+            }
+
+            userIdsByIdentifier.invalidate(identifier);
+        }
+
+        // Unknown identifiers, e.g. from enumeration attempts, whose absence was recently confirmed
+        if (identifierFilterService.isKnownMissing(identifier)) {
+            throw userNotFoundByIdentifier(identifier);
         }
 
+        val found = findUserByIdentifier(identifier);
+        identifierFilterService.recordLookup(identifier, found.isPresent());
+        val user = found.orElseThrow(() -> userNotFoundByIdentifier(identifier));
+        userIdsByIdentifier.put(identifier, user.getId());
         return user;
     }
 
+    private static UserInvalidException userNotFoundByIdentifier(String identifier) {
+        return new UserInvalidException(
+                String.format(ApiMessages.USER_NOT_FOUND_BY_IDENTIFIER.getMessage(), identifier));
+    }
+
+    private Optional<User> findUserByIdentifier(String identifier) {
+        if (identifier.indexOf('@') >= 0) {
+            return userRepository.findWithAccountByEmail(identifier);
+        }
+
+        if (ValidationUtil.isValidAccountNumber(identifier)) {
+            return userRepository.findWithAccountByAccountAccountNumber(identifier);
+        }
+
+        return userRepository.findWithAccountByPhoneNumber(identifier);
+    }
+
+    private static boolean matchesIdentifier(User user, String identifier) {
+        return identifier.equalsIgnoreCase(user.getEmail())
+                || identifier.equals(user.getPhoneNumber())
+                || (user.getAccount() != null && identifier.equals(user.getAccount().getAccountNumber()));
+    }
+
+    private void lockAccount(String accountNumber) {
+        val accountId = accountRepository.findIdByAccountNumber(accountNumber);
+        if (accountId == null || accountRepository.findByIdForUpdate(accountId).isEmpty()) {
+            throw new UserInvalidException(
+                    String.format(ApiMessages.USER_NOT_FOUND_BY_ACCOUNT.getMessage(), accountNumber));
+        }
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public User getUserByAccountNumber(String accountNo) {
-        return userRepository.findByAccountAccountNumber(accountNo).orElseThrow(
+        return userRepository.findWithAccountByAccountAccountNumber(accountNo).orElseThrow(
                 () -> new UserInvalidException(
                         String.format(ApiMessages.USER_NOT_FOUND_BY_ACCOUNT.getMessage(), accountNo)));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
         return userRepository.findByEmail(email).orElseThrow(
                 () -> new UserInvalidException(String.format(ApiMessages.USER_NOT_FOUND_BY_EMAIL.getMessage(), email)));
@@ -157,42 +303,121 @@ public class UserServiceImpl implements UserService {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
     }
 
+    /**
+     * Inserts the user and its account in one transaction. Duplicate emails and
+     * phone numbers are reported by the unique constraints rather than looked
+     * up first; an account number clash is retried with a new number.
+     */
     private User saveUserWithAccount(User user) {
-        val savedUser = saveUser(user);
-        savedUser.setAccount(accountService.createAccount(savedUser));
-        return saveUser(savedUser);
+        for (var attempt = 1;; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    user.setId(null);
+                    user.setAccount(accountService.newAccount(user));
+                    val savedUser = saveAndFlushUser(user);
+                    identifierFilterService.register(savedUser);
+                    return savedUser;
+                });
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_REGISTRATION_ATTEMPTS
+                        || !Account.ACCOUNT_NUMBER_COLUMN.equals(violatedColumn(e))) {
+                    throw e;
+                }
+
+                log.warn("Account number already taken, retrying registration (attempt {})", attempt);
+            }
+        }
     }
 
-    private User authenticateUser(LoginRequest loginRequest) {
-        val user = getUserByIdentifier(loginRequest.identifier());
-        val accountNumber = user.getAccount().getAccountNumber();
-        authenticationManager
-                .authenticate(new UsernamePasswordAuthenticationToken(accountNumber, loginRequest.password()));
-        return user;
+    private User saveAndFlushUser(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            val column = violatedColumn(e);
+            if (User.EMAIL_COLUMN.equals(column)) {
+                throw new UserInvalidException(ApiMessages.USER_EMAIL_ALREADY_EXISTS_ERROR.getMessage());
+            }
+
+            if (User.PHONE_NUMBER_COLUMN.equals(column)) {
+                throw new UserInvalidException(ApiMessages.USER_PHONE_NUMBER_ALREADY_EXISTS_ERROR.getMessage());
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the column of the unique index named in the violation, or null.
+     * MySQL reports a single index even when a column has several, so the
+     * names are resolved through {@link #uniqueKeyColumns} rather than
+     * compared with the constraint names declared on the entities.
+     */
+    private String violatedColumn(Throwable e) {
+        for (var cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                val constraint = violation.getConstraintName().toLowerCase(Locale.ROOT);
+                for (val entry : uniqueKeyColumns.entrySet()) {
+                    if (constraint.contains(entry.getKey())) {
+                        return entry.getValue();
+                    }
+                }
+
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Databases created before the constraints were named still carry the
+     * unique indexes Hibernate generated for the same columns (UK_...), and
+     * ddl-auto only adds the named ones next to them. Reads every
+     * single-column unique index on the email, phone number and account
+     * number columns, so a violation of either index is recognized.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadUniqueKeyColumns() {
+        val columns = List.of(User.EMAIL_COLUMN, User.PHONE_NUMBER_COLUMN, Account.ACCOUNT_NUMBER_COLUMN);
+        try {
+            val indexes = transactionTemplate.execute(status -> userRepository.findUniqueKeyColumns());
+            val resolved = new HashMap<>(uniqueKeyColumns);
+            indexes.forEach((index, column) -> {
+                if (columns.contains(column)) {
+                    resolved.put(index, column);
+                }
+            });
+            uniqueKeyColumns = Map.copyOf(resolved);
+            log.info("Resolved unique indexes {}", resolved);
+        } catch (DataAccessException e) {
+            log.warn("Could not read the unique indexes; only the declared constraint names are recognized", e);
+        }
     }
 
-    private void authenticateUser(String accountNumber, String password) {
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(accountNumber, password));
+    /**
+     * Returns the user resolved by the login provider, loaded with its
+     * account while checking the password.
+     */
+    private User authenticateUser(String identifier, String password) {
+        val authentication = (LoginAuthenticationToken) authenticationManager
+                .authenticate(LoginAuthenticationToken.unauthenticated(identifier, password));
+        return authentication.getUser();
     }
 
-    private String generateAndSaveToken(String accountNumber) throws InvalidTokenException {
-        val userDetails = userDetailsService.loadUserByUsername(accountNumber);
-        val token = tokenService.generateToken(userDetails);
-        tokenService.saveToken(token);
-        return token;
+    // The access token needs only the account number and the refresh token is a single insert
+    private TokenResponse issueTokens(Account account) {
+        val token = tokenService.generateToken(account.getAccountNumber());
+        val refreshToken = tokenService.createRefreshToken(account);
+        return new TokenResponse(token, refreshToken.getToken());
     }
 
-    private ResponseEntity<String> sendOtpEmail(User user, String otp) {
-        val emailSendingFuture = otpService.sendOTPByEmail(
+    private ResponseEntity<OtpQueuedResponse> sendOtpEmail(User user, String otp) {
+        val deliveryId = otpService.dispatchOTPByEmail(
                 user.getEmail(), user.getName(), user.getAccount().getAccountNumber(), otp);
 
-        ResponseEntity<String> successResponse = ResponseEntity
-                .ok(String.format(ApiMessages.OTP_SENT_SUCCESS.getMessage(), user.getEmail()));
-        ResponseEntity<String> failureResponse = ResponseEntity.internalServerError()
-                .body(String.format(ApiMessages.OTP_SENT_FAILURE.getMessage(), user.getEmail()));
-
-        return emailSendingFuture.thenApply(result -> successResponse)
-                .exceptionally(e -> failureResponse).join();
+        return ResponseEntity.accepted()
+                .body(new OtpQueuedResponse(
+                        String.format(ApiMessages.OTP_QUEUED_SUCCESS.getMessage(), user.getEmail()), deliveryId));
     }
 
     private void validateOtpRequest(OtpVerificationRequest request) {
@@ -10,6 +10,7 @@ public enum ApiMessages {
     AMOUNT_INVALID_ERROR("Invalid amount"),
     AMOUNT_NEGATIVE_ERROR("Amount must be greater than 0"),
     AMOUNT_NOT_MULTIPLE_OF_100_ERROR("Amount must be in multiples of 100"),
+    BAD_CREDENTIALS_ERROR("Bad credentials"),
     BALANCE_INSUFFICIENT_ERROR("Insufficient balance"),
     CASH_DEPOSIT_SUCCESS("{\"msg\": \"Cash deposited successfully\"}"),
     CASH_TRANSFER_SAME_ACCOUNT_ERROR("Source and target account cannot be the same"),
@@ -18,19 +19,21 @@ public enum ApiMessages {
     EMAIL_SUBJECT_LOGIN("New login to OneStopBank"),
     EMAIL_SUBJECT_OTP("OTP Verification"),
     GEOLOCATION_FAILED("Failed to get geolocation for IP: %s"),
+    IDEMPOTENCY_KEY_IN_PROGRESS_ERROR("A request with this Idempotency-Key is still being processed"),
+    IDEMPOTENCY_KEY_INVALID_ERROR("Idempotency-Key must be between 1 and %d characters"),
+    IDEMPOTENCY_KEY_REUSED_ERROR("Idempotency-Key was already used for a different request"),
     IDENTIFIER_MISSING_ERROR("Missing identifier"),
+    OTP_DELIVERY_NOT_FOUND("No OTP delivery found for id: %s"),
     OTP_GENERATION_LIMIT_EXCEEDED("OTP generation limit exceeded. Please try again after %d minutes"),
     OTP_INVALID_ERROR("Invalid OTP"),
     OTP_MISSING_ERROR("Missing OTP"),
-    OTP_SENT_FAILURE("{\"message\": \"Failed to send OTP to: %s\"}"),
-    OTP_SENT_SUCCESS("{\"message\": \"OTP sent successfully to: %s\"}"),
+    OTP_QUEUED_SUCCESS("OTP is being sent to: %s"),
     PASSWORD_CONTAINS_WHITESPACE_ERROR("Password cannot contain any whitespace characters"),
     PASSWORD_EMPTY_ERROR("Password cannot be empty"),
     PASSWORD_INVALID_ERROR("Invalid password"),
     PASSWORD_REQUIREMENTS_ERROR("Password must contain at least %s"),
     PASSWORD_RESET_FAILURE("Failed to reset password"),
     PASSWORD_RESET_SUCCESS("{\"message\": \"Password reset successfully\"}"),
-    PASSWORD_RESET_TOKEN_ISSUED("{\"passwordResetToken\": \"%s\"}"),
     PASSWORD_TOO_LONG_ERROR("Password must be less than 128 characters long"),
     PASSWORD_TOO_SHORT_ERROR("Password must be at least 8 characters long"),
     PIN_ALREADY_EXISTS("PIN already created"),
@@ -41,15 +44,21 @@ public enum ApiMessages {
     PIN_INVALID_ERROR("Invalid PIN"),
     PIN_NOT_CREATED("PIN has not been created for this account"),
     PIN_UPDATE_SUCCESS("{\"hasPIN\": false, \"msg\": \"PIN updated successfully\"}"),
+    RATE_LIMIT_EXCEEDED_ERROR("Too many requests. Please try again after %d seconds"),
+    REQUEST_BODY_TOO_LARGE_ERROR("Request body cannot be larger than %d bytes"),
     TOKEN_ALREADY_EXISTS_ERROR("Token already exists"),
     TOKEN_EMPTY_ERROR("Token is empty"),
     TOKEN_EXPIRED_ERROR("Token has expired"),
     TOKEN_INVALID_ERROR("Token is invalid"),
-    TOKEN_ISSUED_SUCCESS("{ \"token\": \"%s\" }"),
     TOKEN_MALFORMED_ERROR("Token is malformed"),
     TOKEN_NOT_FOUND_ERROR("Token not found"),
+    TOKEN_REUSED_ERROR("Token has already been used; all sessions of the account have been signed out"),
     TOKEN_SIGNATURE_INVALID_ERROR("Token signature is invalid"),
     TOKEN_UNSUPPORTED_ERROR("Token is not supported"),
+    TRANSACTION_SEARCH_AMOUNT_RANGE_INVALID_ERROR("Invalid amount range"),
+    TRANSACTION_SEARCH_DATE_RANGE_INVALID_ERROR("Invalid date range"),
+    TRANSACTION_SEARCH_PAGE_SIZE_INVALID_ERROR("Page size must be between 1 and %d"),
+    TRANSACTION_SEARCH_UNBOUNDED_ERROR("Amount filters must be combined with a date range, type or counterparty"),
     USER_ADDRESS_EMPTY_ERROR("Address cannot be empty"),
     USER_COUNTRY_CODE_EMPTY_ERROR("Country code cannot be empty"),
     USER_COUNTRY_CODE_INVALID_ERROR("Invalid country code: %s"),
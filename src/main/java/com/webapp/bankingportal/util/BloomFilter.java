@@ -0,0 +1,104 @@
+package com.webapp.bankingportal.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import lombok.Getter;
+import lombok.val;
+
+/**
+ * Thread-safe Bloom filter over strings. Bits live in an
+ * {@link AtomicLongArray}, so concurrent {@link #put(String)} calls never
+ * lose each other's bits and readers never block.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final AtomicLong bitsSet = new AtomicLong();
+    private final AtomicLong insertions = new AtomicLong();
+
+    @Getter
+    private final int hashFunctions;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        val n = Math.max(1, expectedInsertions);
+        val optimalBits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        val wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+
+        this.words = new AtomicLongArray(wordCount);
+        this.bitSize = wordCount * 64L;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+    }
+
+    public void put(String value) {
+        val hash = hash(value);
+        val h1 = (int) hash;
+        val h2 = (int) (hash >>> 32);
+
+        for (var i = 1; i <= hashFunctions; i++) {
+            val bit = Math.floorMod(h1 + (long) i * h2, bitSize);
+            val index = (int) (bit >>> 6);
+            val mask = 1L << bit;
+
+            long word;
+            do {
+                word = words.get(index);
+                if ((word & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(index, word, word | mask));
+
+            if ((word & mask) == 0) {
+                bitsSet.incrementAndGet();
+            }
+        }
+
+        insertions.incrementAndGet();
+    }
+
+    public boolean mightContain(String value) {
+        val hash = hash(value);
+        val h1 = (int) hash;
+        val h2 = (int) (hash >>> 32);
+
+        for (var i = 1; i <= hashFunctions; i++) {
+            val bit = Math.floorMod(h1 + (long) i * h2, bitSize);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /** Current false-positive probability, estimated from the fraction of bits set. */
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) bitsSet.get() / bitSize, hashFunctions);
+    }
+
+    public long getInsertions() {
+        return insertions.get();
+    }
+
+    public long getMemoryBytes() {
+        return words.length() * 8L;
+    }
+
+    // FNV-1a over the UTF-16 code units followed by the MurmurHash3 finalizer
+    private static long hash(String value) {
+        var h = 0xcbf29ce484222325L;
+        for (var i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
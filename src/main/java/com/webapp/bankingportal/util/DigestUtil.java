@@ -0,0 +1,29 @@
+package com.webapp.bankingportal.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import lombok.val;
+
+public class DigestUtil {
+
+    /**
+     * Returns the SHA-256 digest of a string's UTF-8 bytes as 64 lowercase hex
+     * characters.
+     *
+     * @param value the string to digest
+     * @return the hex encoded digest
+     */
+    public static String sha256Hex(String value) {
+        try {
+            val digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -1,17 +1,36 @@
 package com.webapp.bankingportal.util;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.OutputStream;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import lombok.extern.slf4j.Slf4j;
 
-public interface JsonUtil {
+/**
+ * JSON helpers backed by the application's {@link ObjectMapper}, so code
+ * outside the MVC message converters serializes exactly like the controllers
+ * do. Prefer {@link #writeJson(OutputStream, Object)} over {@link #toJson}
+ * whenever there is a stream to write to.
+ */
+@Component
+@Slf4j
+public class JsonUtil {
 
-    public static final Logger log = LoggerFactory.getLogger(JsonUtil.class);
-    public static final ObjectMapper objectMapper = new ObjectMapper()
-            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter streamWriter;
+
+    public JsonUtil(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // The caller owns the stream, so it is flushed but left open
+        this.streamWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
 
     /**
      * Convert an object to a JSON string.
@@ -19,7 +38,7 @@ public interface JsonUtil {
      * @param obj the object to be converted to JSON
      * @return the JSON string representation of the object
      */
-    public static String toJson(Object obj) {
+    public String toJson(Object obj) {
         try {
             return objectMapper.writeValueAsString(obj);
         } catch (JsonProcessingException e) {
@@ -29,4 +48,25 @@ public interface JsonUtil {
         return null;
     }
 
+    /**
+     * Write an object as JSON straight to a stream without building an
+     * intermediate string. The stream is flushed but not closed.
+     *
+     * @param out the stream to write to
+     * @param obj the object to be written as JSON
+     */
+    public void writeJson(OutputStream out, Object obj) throws IOException {
+        streamWriter.writeValue(out, obj);
+    }
+
+    /**
+     * Parse a JSON document into a tree.
+     *
+     * @param content the raw JSON bytes
+     * @return the root node of the document
+     */
+    public JsonNode readTree(byte[] content) throws IOException {
+        return objectMapper.readTree(content);
+    }
+
 }
@@ -0,0 +1,195 @@
+package com.webapp.bankingportal.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.springframework.core.io.InputStreamSource;
+
+import lombok.val;
+
+/**
+ * Reusable output buffer that keeps content in memory up to a threshold and
+ * spills everything written after that to a temporary file. The in-memory
+ * array is kept across {@link #reset()} calls, so a worker rendering one
+ * document after another stops allocating once it has seen its largest
+ * in-memory document.
+ *
+ * Not thread-safe; each worker uses its own buffer.
+ */
+public class SpillingBuffer extends OutputStream {
+
+    /** Content detached from the buffer. Must be discarded once consumed. */
+    public interface Content extends InputStreamSource {
+
+        long size();
+
+        boolean spilled();
+
+        void discard();
+    }
+
+    private final int threshold;
+    private final String spillPrefix;
+
+    private byte[] bytes;
+    private int count;
+    private Path spillFile;
+    private OutputStream spill;
+    private long spilledBytes;
+
+    public SpillingBuffer(int initialCapacity, int threshold, String spillPrefix) {
+        this.bytes = new byte[Math.min(initialCapacity, threshold)];
+        this.threshold = threshold;
+        this.spillPrefix = spillPrefix;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (spill == null && count == threshold) {
+            startSpilling();
+        }
+
+        if (spill != null) {
+            spill.write(b);
+            spilledBytes++;
+            return;
+        }
+
+        ensureCapacity(count + 1);
+        bytes[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (spill == null && count + len > threshold) {
+            startSpilling();
+        }
+
+        if (spill != null) {
+            spill.write(b, off, len);
+            spilledBytes += len;
+            return;
+        }
+
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, bytes, count, len);
+        count += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (spill != null) {
+            spill.flush();
+        }
+    }
+
+    public long size() {
+        return spill != null ? spilledBytes : count;
+    }
+
+    /**
+     * Hands the written content over and leaves the buffer empty. In-memory
+     * content is copied so the buffer can be reused right away; spilled
+     * content is handed over as the file itself.
+     */
+    public Content detach() throws IOException {
+        if (spill == null) {
+            val content = Arrays.copyOf(bytes, count);
+            reset();
+            return new MemoryContent(content);
+        }
+
+        spill.close();
+        val content = new FileContent(spillFile, spilledBytes);
+        spill = null;
+        spillFile = null;
+        spilledBytes = 0;
+        count = 0;
+        return content;
+    }
+
+    /** Drops the written content, deleting the spill file if there is one. */
+    public void reset() {
+        count = 0;
+        if (spill != null) {
+            try {
+                spill.close();
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                spillFile.toFile().deleteOnExit();
+            }
+            spill = null;
+            spillFile = null;
+            spilledBytes = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        reset();
+    }
+
+    private void startSpilling() throws IOException {
+        spillFile = Files.createTempFile(spillPrefix, ".tmp");
+        spill = new BufferedOutputStream(Files.newOutputStream(spillFile));
+        spill.write(bytes, 0, count);
+        spilledBytes = count;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.min(Math.max(bytes.length * 2, capacity), threshold));
+        }
+    }
+
+    private record MemoryContent(byte[] bytes) implements Content {
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public long size() {
+            return bytes.length;
+        }
+
+        @Override
+        public boolean spilled() {
+            return false;
+        }
+
+        @Override
+        public void discard() {
+        }
+    }
+
+    private record FileContent(Path file, long size) implements Content {
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(file);
+        }
+
+        @Override
+        public boolean spilled() {
+            return true;
+        }
+
+        @Override
+        public void discard() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+}
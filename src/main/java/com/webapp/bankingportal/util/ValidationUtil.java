@@ -1,19 +1,23 @@
 package com.webapp.bankingportal.util;
 
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.regex.Pattern;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.i18n.phonenumbers.NumberParseException;
 import com.google.i18n.phonenumbers.PhoneNumberUtil;
-import com.google.i18n.phonenumbers.Phonenumber.PhoneNumber;
 
 import com.webapp.bankingportal.entity.User;
 import com.webapp.bankingportal.exception.UserInvalidException;
 import com.webapp.bankingportal.repository.UserRepository;
-
-import jakarta.mail.internet.AddressException;
-import jakarta.mail.internet.InternetAddress;
+import com.webapp.bankingportal.service.IdentifierFilterService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.val;
@@ -25,16 +29,38 @@ public class ValidationUtil {
     public static final Logger log = LoggerFactory.getLogger(ValidationUtil.class);
     public static final PhoneNumberUtil phoneNumberUtil = PhoneNumberUtil.getInstance();
 
+    // addr-spec only: dot-atom or quoted local part, host name or domain literal
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(
+            "(?:[A-Za-z0-9!#$%&'*+/=?^_`{|}~\\u0080-\\uFFFF-]+(?:\\.[A-Za-z0-9!#$%&'*+/=?^_`{|}~\\u0080-\\uFFFF-]+)*"
+                    + "|\"(?:[^\"\\\\\\r\\n]|\\\\.)*\")"
+                    + "@(?:[A-Za-z0-9\\u0080-\\uFFFF-]+(?:\\.[A-Za-z0-9\\u0080-\\uFFFF-]+)*|\\[[^\\[\\]\\\\\\r\\n]*\\])");
+
+    private static final Set<String> SUPPORTED_REGIONS = Set.copyOf(phoneNumberUtil.getSupportedRegions());
+
+    private enum PhoneNumberCheck {
+        VALID, INVALID, UNPARSEABLE
+    }
+
+    private static final Cache<String, PhoneNumberCheck> phoneNumberChecks = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+
+    private static final int MISSING_UPPERCASE = 1;
+    private static final int MISSING_LOWERCASE = 1 << 1;
+    private static final int MISSING_DIGIT = 1 << 2;
+    private static final int MISSING_SPECIAL = 1 << 3;
+    private static final int MISSING_ALL = MISSING_UPPERCASE | MISSING_LOWERCASE | MISSING_DIGIT | MISSING_SPECIAL;
+    private static final String[] PASSWORD_REQUIREMENT_MESSAGES = passwordRequirementMessages();
+
+    private final IdentifierFilterService identifierFilterService;
     private final UserRepository userRepository;
 
     public static boolean isValidEmail(String identifier) {
-        try {
-            new InternetAddress(identifier).validate();
+        if (identifier != null && EMAIL_PATTERN.matcher(identifier).matches()) {
             return true;
-        } catch (AddressException e) {
-            log.warn("Invalid email address: {}", identifier);
         }
 
+        log.warn("Invalid email address: {}", identifier);
         return false;
     }
 
@@ -44,77 +70,89 @@ public class ValidationUtil {
     }
 
     public static boolean isValidCountryCode(String countryCode) {
-        if (!phoneNumberUtil.getSupportedRegions().contains(countryCode)) {
-            return false;
-        }
-
-        return true;
+        return countryCode != null && SUPPORTED_REGIONS.contains(countryCode);
     }
 
     public static boolean isValidPhoneNumber(String phoneNumber, String countryCode) {
-        PhoneNumber parsedNumber = null;
+        val check = phoneNumberChecks.get(countryCode + ':' + phoneNumber,
+                key -> checkPhoneNumber(phoneNumber, countryCode));
 
-        try {
-            parsedNumber = phoneNumberUtil.parse(phoneNumber, countryCode);
-        } catch (NumberParseException e) {
+        if (check == PhoneNumberCheck.UNPARSEABLE) {
             throw new UserInvalidException(String.format(ApiMessages.USER_PHONE_NUMBER_INVALID_ERROR.getMessage(), phoneNumber, countryCode));
         }
 
-        return phoneNumberUtil.isValidNumber(parsedNumber);
+        return check == PhoneNumberCheck.VALID;
+    }
+
+    private static PhoneNumberCheck checkPhoneNumber(String phoneNumber, String countryCode) {
+        try {
+            val parsedNumber = phoneNumberUtil.parse(phoneNumber, countryCode);
+            return phoneNumberUtil.isValidNumber(parsedNumber) ? PhoneNumberCheck.VALID : PhoneNumberCheck.INVALID;
+        } catch (NumberParseException e) {
+            return PhoneNumberCheck.UNPARSEABLE;
+        }
     }
 
+    /**
+     * Checks length, whitespace and character classes in a single pass over
+     * the password. Missing character classes are collected in a bit mask that
+     * indexes a table of precomputed error messages.
+     */
     public static void validatePassword(String password) {
-        if (password.length() < 8) {
+        val length = password.length();
+        if (length < 8) {
             throw new UserInvalidException(ApiMessages.PASSWORD_TOO_SHORT_ERROR.getMessage());
         }
 
-        if (password.length() >= 128) {
+        if (length >= 128) {
             throw new UserInvalidException(ApiMessages.PASSWORD_TOO_LONG_ERROR.getMessage());
         }
 
-        if (password.matches(".*\\s.*")) {
-            throw new UserInvalidException(ApiMessages.PASSWORD_CONTAINS_WHITESPACE_ERROR.getMessage());
+        var missing = MISSING_ALL;
+        for (var i = 0; i < length; i++) {
+            val c = password.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                missing &= ~MISSING_UPPERCASE;
+            } else if (c >= 'a' && c <= 'z') {
+                missing &= ~MISSING_LOWERCASE;
+            } else if (c >= '0' && c <= '9') {
+                missing &= ~MISSING_DIGIT;
+            } else if (isWhitespace(c)) {
+                throw new UserInvalidException(ApiMessages.PASSWORD_CONTAINS_WHITESPACE_ERROR.getMessage());
+            } else {
+                missing &= ~MISSING_SPECIAL;
+            }
         }
 
-        val message = new StringBuilder();
-        message.append("Password must contain at least ");
-
-        var needsComma = false;
-        if (!password.matches(".*[A-Z].*")) {
-            message.append("one uppercase letter");
-            needsComma = true;
+        if (missing != 0) {
+            throw new UserInvalidException(PASSWORD_REQUIREMENT_MESSAGES[missing]);
         }
+    }
 
-        if (!password.matches(".*[a-z].*")) {
-            if (needsComma) {
-                message.append(", ");
-            }
-            message.append("one lowercase letter");
-            needsComma = true;
-        }
+    // Same set as the regex class \s
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
 
-        if (!password.matches(".*[0-9].*")) {
-            if (needsComma) {
-                message.append(", ");
+    private static String[] passwordRequirementMessages() {
+        val requirements = new String[] {
+                "one uppercase letter", "one lowercase letter", "one digit", "one special character" };
+        val messages = new String[MISSING_ALL + 1];
+
+        for (var mask = 1; mask <= MISSING_ALL; mask++) {
+            val parts = new ArrayList<String>();
+            for (var bit = 0; bit < requirements.length; bit++) {
+                if ((mask & (1 << bit)) != 0) {
+                    parts.add(requirements[bit]);
+                }
             }
-            message.append("one digit");
-            needsComma = true;
-        }
 
-        if (!password.matches(".*[^A-Za-z0-9].*")) {
-            if (needsComma) {
-                message.append(", ");
-            }
-            message.append("one special character");
+            val last = parts.remove(parts.size() - 1);
+            val joined = parts.isEmpty() ? last : String.join(", ", parts) + " and " + last;
+            messages[mask] = String.format(ApiMessages.PASSWORD_REQUIREMENTS_ERROR.getMessage(), joined);
         }
 
-        if (message.length() > "Password must contain at least ".length()) {
-            val lastCommaIndex = message.lastIndexOf(",");
-            if (lastCommaIndex > -1) {
-                message.replace(lastCommaIndex, lastCommaIndex + 1, " and");
-            }
-            throw new UserInvalidException(message.toString());
-        }
+        return messages;
     }
 
     public static void validateUserDetailsNotEmpty(User user) {
@@ -165,26 +203,37 @@ public class ValidationUtil {
         validatePassword(user.getPassword());
     }
 
-    public void validateNewUser(User user) {
-        validateUserDetails(user);
-        if (doesEmailExist(user.getEmail())) {
-            throw new UserInvalidException(ApiMessages.USER_EMAIL_ALREADY_EXISTS_ERROR.getMessage());
-        }
-        if (doesPhoneNumberExist(user.getPhoneNumber())) {
-            throw new UserInvalidException(ApiMessages.USER_PHONE_NUMBER_ALREADY_EXISTS_ERROR.getMessage());
+    @Transactional(readOnly = true)
+    public boolean doesAccountExist(String accountNumber) {
+        if (identifierFilterService.isKnownMissing(accountNumber)) {
+            return false;
         }
-    }
 
-    public boolean doesAccountExist(String accountNumber) {
-        return userRepository.findByAccountAccountNumber(accountNumber).isPresent();
+        val exists = userRepository.findByAccountAccountNumber(accountNumber).isPresent();
+        identifierFilterService.recordLookup(accountNumber, exists);
+        return exists;
     }
 
+    @Transactional(readOnly = true)
     public boolean doesEmailExist(String email) {
-        return userRepository.findByEmail(email).isPresent();
+        if (identifierFilterService.isKnownMissing(email)) {
+            return false;
+        }
+
+        val exists = userRepository.findByEmail(email).isPresent();
+        identifierFilterService.recordLookup(email, exists);
+        return exists;
     }
 
+    @Transactional(readOnly = true)
     public boolean doesPhoneNumberExist(String phoneNumber) {
-        return userRepository.findByPhoneNumber(phoneNumber).isPresent();
+        if (identifierFilterService.isKnownMissing(phoneNumber)) {
+            return false;
+        }
+
+        val exists = userRepository.existsByPhoneNumber(phoneNumber);
+        identifierFilterService.recordLookup(phoneNumber, exists);
+        return exists;
     }
 
 }